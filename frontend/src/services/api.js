@@ -9,21 +9,35 @@ const api = axios.create({
   },
 });
 
+// Keyset-paged list endpoints return one page at a time, with the cursor of the next page in
+// the X-Next-Cursor header: follow it until the last page and resolve with every row, shaped
+// like a single axios response
+const getAllPages = async (url) => {
+  const rows = [];
+  let cursor;
+  do {
+    const response = await api.get(url, { params: cursor ? { cursor } : {} });
+    rows.push(...response.data);
+    cursor = response.headers['x-next-cursor'];
+  } while (cursor);
+  return { data: rows };
+};
+
 // Order API
 export const orderApi = {
-  getAll: () => api.get('/orders'),
+  getAll: () => getAllPages('/orders'),
   getById: (id) => api.get(`/orders/${id}`),
   create: (order) => api.post('/orders', order),
   update: (id, order) => api.put(`/orders/${id}`, order),
   updateStatus: (id, status) => api.patch(`/orders/${id}/status?status=${status}`),
   delete: (id) => api.delete(`/orders/${id}`),
-  getByCustomerId: (customerId) => api.get(`/orders/customer/${customerId}`),
-  getByStatus: (status) => api.get(`/orders/status/${status}`),
+  getByCustomerId: (customerId) => getAllPages(`/orders/customer/${customerId}`),
+  getByStatus: (status) => getAllPages(`/orders/status/${status}`),
 };
 
 // Coupon API
 export const couponApi = {
-  getAll: () => api.get('/coupons'),
+  getAll: () => getAllPages('/coupons'),
   getById: (id) => api.get(`/coupons/${id}`),
   getByCode: (code) => api.get(`/coupons/code/${code}`),
   create: (coupon) => api.post('/coupons', coupon),
@@ -0,0 +1,68 @@
+package com.example.ordermanagement.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.BiFunction;
+
+/**
+ * Fixtures shared by the JMH benchmarks, which run outside the Spring context.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Raises the root log level to WARN so that the services' INFO logging, which goes to the
+     * console without the application's configuration, does not dominate the measurements.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * Returns an implementation of the given interface, typically a repository, whose methods
+     * are answered by {@code handler} from the method name and arguments.
+     */
+    static <T> T stub(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.apply(method.getName(), args)));
+    }
+
+    static Coupon coupon(String code, CouponType type, String value, String minOrderAmount) {
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setCode(code);
+        coupon.setType(type);
+        coupon.setValue(new BigDecimal(value));
+        coupon.setMinOrderAmount(new BigDecimal(minOrderAmount));
+        coupon.setMaxUses(1_000);
+        coupon.setUsedCount(10);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusYears(1));
+        coupon.setActive(true);
+        return coupon;
+    }
+
+    static Order order() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setName("Benchmark Order");
+        order.setOriginalAmount(new BigDecimal("129.99"));
+        order.setFinalAmount(new BigDecimal("103.99"));
+        order.setStatus(OrderStatus.CREATED);
+        order.setCustomerId(1001L);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        return order;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import com.example.ordermanagement.service.CouponCache;
+import com.example.ordermanagement.service.CouponCodeGenerator;
+import com.example.ordermanagement.service.CouponMetrics;
+import com.example.ordermanagement.service.CouponRedemptionLedger;
+import com.example.ordermanagement.service.CouponService;
+import com.example.ordermanagement.service.CouponValidator;
+import com.example.ordermanagement.service.DiscountCalculator;
+import com.example.ordermanagement.service.OptimisticLockRetry;
+import com.example.ordermanagement.service.ValidCouponIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coupon rules on the checkout path: validity checks, code generation and
+ * {@link CouponService#calculateDiscount} with the coupon already cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponBenchmark {
+
+    private static final BigDecimal ORDER_AMOUNT = new BigDecimal("129.99");
+    private static final String CODE_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private Coupon percentageCoupon;
+    private Coupon fixedCoupon;
+    private CouponCodeGenerator codeGenerator;
+    private CouponService couponService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        percentageCoupon = BenchmarkSupport.coupon("SAVE20PC", CouponType.PERCENTAGE, "20.00", "0.00");
+        fixedCoupon = BenchmarkSupport.coupon("FLAT50OF", CouponType.FIXED, "50.00", "100.00");
+        codeGenerator = new CouponCodeGenerator(new AtomicLong()::getAndIncrement, 1L, 10_000);
+
+        Map<String, Coupon> coupons = Map.of(percentageCoupon.getCode(), percentageCoupon,
+                fixedCoupon.getCode(), fixedCoupon);
+        CouponRepository couponRepository = BenchmarkSupport.stub(CouponRepository.class, (method, args) -> {
+            if (method.equals("findByCode")) {
+                return Optional.ofNullable(coupons.get((String) args[0]));
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CouponMetrics couponMetrics = new CouponMetrics(meterRegistry);
+        couponService = new CouponService(couponRepository,
+                new CouponCache(couponRepository, meterRegistry, 100, Duration.ofMinutes(5)),
+                new CouponRedemptionLedger(couponRepository,
+                        BenchmarkSupport.stub(PlatformTransactionManager.class, (method, args) -> null), meterRegistry, 1, 5),
+                couponMetrics,
+                new DiscountCalculator(couponMetrics),
+                new CouponValidator(),
+                new ValidCouponIndex(couponRepository, Duration.ofSeconds(1)),
+                codeGenerator,
+                new OptimisticLockRetry(BenchmarkSupport.stub(PlatformTransactionManager.class, (method, args) -> null),
+                        meterRegistry, 1, Duration.ZERO));
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return percentageCoupon.isValid();
+    }
+
+    @Benchmark
+    public boolean canApplyFixedToOrder() {
+        return fixedCoupon.canApplyToOrder(ORDER_AMOUNT);
+    }
+
+    @Benchmark
+    public String generateCode() {
+        return codeGenerator.nextCode();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateCodeConcurrently() {
+        return codeGenerator.nextCode();
+    }
+
+    /**
+     * The generator codes used before: a new {@link SecureRandom} per code, and no uniqueness.
+     */
+    @Benchmark
+    public String generateCodeSecureRandom() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder sb = new StringBuilder(8);
+        for (int i = 0; i < 8; i++) {
+            sb.append(CODE_CHARACTERS.charAt(random.nextInt(CODE_CHARACTERS.length())));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public BigDecimal calculatePercentageDiscount() {
+        return couponService.calculateDiscount("SAVE20PC", ORDER_AMOUNT);
+    }
+
+    @Benchmark
+    public BigDecimal calculateFixedDiscount() {
+        return couponService.calculateDiscount("FLAT50OF", ORDER_AMOUNT);
+    }
+}
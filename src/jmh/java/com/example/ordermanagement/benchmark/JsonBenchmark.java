@@ -0,0 +1,68 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.entity.Order;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the request and response bodies of the order and coupon endpoints,
+ * with a mapper configured like the one Spring Boot provides.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    // Same features as Spring Boot's Jackson2ObjectMapperBuilder defaults
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private Order order;
+    private Coupon coupon;
+    private byte[] orderJson;
+    private byte[] couponJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        order = BenchmarkSupport.order();
+        coupon = BenchmarkSupport.coupon("SAVE20PC", CouponType.PERCENTAGE, "20.00", "0.00");
+        orderJson = objectMapper.writeValueAsBytes(order);
+        couponJson = objectMapper.writeValueAsBytes(coupon);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws IOException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order deserializeOrder() throws IOException {
+        return objectMapper.readValue(orderJson, Order.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCoupon() throws IOException {
+        return objectMapper.writeValueAsBytes(coupon);
+    }
+
+    @Benchmark
+    public Coupon deserializeCoupon() throws IOException {
+        return objectMapper.readValue(couponJson, Coupon.class);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.discount.Cents;
+import com.example.ordermanagement.discount.DiscountRule;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The discount arithmetic in {@link BigDecimal}, as the discount engine did it before, against
+ * the compiled {@link DiscountRule} of the same coupons: from a {@code BigDecimal} order amount
+ * to a {@code BigDecimal} discount, and on amounts already held in cents. Run with
+ * {@code -prof gc} to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private BigDecimal orderAmount;
+    private long orderCents;
+    private Coupon percentageCoupon;
+    private Coupon fixedCoupon;
+    private DiscountRule percentageRule;
+    private DiscountRule fixedRule;
+
+    @Setup
+    public void setUp() {
+        orderAmount = new BigDecimal("129.99");
+        orderCents = Cents.of(orderAmount);
+        percentageCoupon = BenchmarkSupport.coupon("SAVE20PC", CouponType.PERCENTAGE, "17.50", "0.00");
+        fixedCoupon = BenchmarkSupport.coupon("FLAT50OF", CouponType.FIXED, "50.00", "100.00");
+        percentageRule = percentageCoupon.discountRule();
+        fixedRule = fixedCoupon.discountRule();
+    }
+
+    @Benchmark
+    public BigDecimal percentageBigDecimal() {
+        return orderAmount.multiply(percentageCoupon.getValue())
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal percentageCents() {
+        return Cents.toBigDecimal(percentageCoupon.discountRule().discountCents(Cents.of(orderAmount), null));
+    }
+
+    @Benchmark
+    public long percentageCentsOnly() {
+        return percentageRule.discountCents(orderCents, null);
+    }
+
+    @Benchmark
+    public BigDecimal fixedBigDecimal() {
+        if (orderAmount.compareTo(fixedCoupon.getMinOrderAmount()) < 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal value = fixedCoupon.getValue();
+        return value.compareTo(orderAmount) > 0 ? orderAmount : value;
+    }
+
+    @Benchmark
+    public BigDecimal fixedCents() {
+        long discountCents = fixedCoupon.discountRule().discountCents(Cents.of(orderAmount), null);
+        return discountCents < 0 ? BigDecimal.ZERO : Cents.toBigDecimal(discountCents);
+    }
+
+    @Benchmark
+    public long fixedCentsOnly() {
+        return fixedRule.discountCents(orderCents, null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.OptimisticLockRetry;
+import com.example.ordermanagement.service.OrderMetrics;
+import com.example.ordermanagement.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderService#createOrder} against a repository that returns the order it is given,
+ * isolating the service's own work from the database round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        OrderRepository orderRepository = BenchmarkSupport.stub(OrderRepository.class, (method, args) -> {
+            if (method.equals("save")) {
+                return args[0];
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        orderService = new OrderService(orderRepository, new OrderMetrics(meterRegistry),
+                new OptimisticLockRetry(BenchmarkSupport.stub(PlatformTransactionManager.class, (method, args) -> null),
+                        meterRegistry, 1, Duration.ZERO));
+        order = BenchmarkSupport.order();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(order);
+    }
+}
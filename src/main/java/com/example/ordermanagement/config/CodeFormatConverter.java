@@ -0,0 +1,20 @@
+package com.example.ordermanagement.config;
+
+import com.example.ordermanagement.service.CouponCampaignService.CodeFormat;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Binds {@code format} request parameters such as {@code format=ndjson} to {@link CodeFormat}
+ * regardless of case; an unknown format is rejected with {@code 400}.
+ */
+@Component
+public class CodeFormatConverter implements Converter<String, CodeFormat> {
+
+    @Override
+    public CodeFormat convert(String source) {
+        return CodeFormat.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
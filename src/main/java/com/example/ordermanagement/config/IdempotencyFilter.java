@@ -0,0 +1,231 @@
+package com.example.ordermanagement.config;
+
+import com.example.ordermanagement.exception.GlobalExceptionHandler.ErrorResponse;
+import com.example.ordermanagement.service.IdempotencyStore;
+import com.example.ordermanagement.service.IdempotencyStore.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Makes mutating API requests sent with an {@value #IDEMPOTENCY_KEY_HEADER} header safe to
+ * retry: the first request under a key runs and its response is kept in
+ * {@link IdempotencyStore}; later requests under the key get that response back, marked with
+ * {@value #REPLAYED_HEADER}{@code : true}, without reaching the controllers.
+ * <p>
+ * A request is identified by its method, URI, query string and body. Reusing a key for a
+ * different request is refused with {@code 422}, and a retry arriving while the first request
+ * is still running gets {@code 409}. Server errors, {@code 409} and {@code 429} are not kept, as
+ * they may not recur: a retry after one runs again.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.executed = outcome(meterRegistry, "executed");
+        this.replayed = outcome(meterRegistry, "replayed");
+        this.rejected = outcome(meterRegistry, "rejected");
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .description("Requests sent with an Idempotency-Key, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        return key == null || key.isBlank()
+                || !MUTATING_METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.length() > MAX_KEY_LENGTH) {
+            rejected.increment();
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    "Idempotency key cannot be longer than " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        String fingerprint = fingerprint(request, body);
+
+        StoredResponse stored = idempotencyStore.claim(key, fingerprint);
+        if (stored != null) {
+            answerFromStore(key, fingerprint, stored, response);
+            return;
+        }
+
+        executed.increment();
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (isFinal(status) && !request.isAsyncStarted()) {
+                idempotencyStore.complete(key, new StoredResponse(fingerprint, status, cachingResponse.getContentType(),
+                        cachingResponse.getHeader(HttpHeaders.LOCATION), cachingResponse.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(key);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    // Conflicts and throttling are transient, like server errors, so retries must not get them replayed
+    private static boolean isFinal(int status) {
+        return status < 500 && status != HttpStatus.CONFLICT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private void answerFromStore(String key, String fingerprint, StoredResponse stored, HttpServletResponse response)
+            throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            log.warn("Idempotency key: {} was reused for a different request", key);
+            rejected.increment();
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key was already used for a different request");
+        } else if (stored.isRunning()) {
+            log.warn("Idempotency key: {} is still in use by a running request", key);
+            rejected.increment();
+            writeError(response, HttpStatus.CONFLICT, "A request with this idempotency key is still running");
+        } else {
+            log.info("Replaying stored response for idempotency key: {}", key);
+            replayed.increment();
+            response.setStatus(stored.status());
+            if (stored.contentType() != null) {
+                response.setContentType(stored.contentType());
+            }
+            if (stored.location() != null) {
+                response.setHeader(HttpHeaders.LOCATION, stored.location());
+            }
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(status.value(), message, LocalDateTime.now()));
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        String target = request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n';
+        digest.update(target.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest(body));
+    }
+
+    /**
+     * Serves the request body read for the fingerprint to the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body was read in full for the fingerprint, so the original stream is drained
+                // and there is nothing left to read asynchronously
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new IllegalStateException(
+                            "Non-blocking reads are not supported on a request body buffered for its idempotency key");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
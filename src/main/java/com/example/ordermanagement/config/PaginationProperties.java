@@ -0,0 +1,23 @@
+package com.example.ordermanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page size limits for the keyset-paginated listing endpoints.
+ */
+@ConfigurationProperties(prefix = "api.pagination")
+public record PaginationProperties(@DefaultValue("100") int defaultSize,
+                                   @DefaultValue("1000") int maxSize) {
+
+    /**
+     * Returns the requested page size clamped to {@code [1, maxSize]}, or the default size
+     * when none was requested.
+     */
+    public int resolve(Integer requestedSize) {
+        if (requestedSize == null) {
+            return defaultSize;
+        }
+        return Math.max(1, Math.min(requestedSize, maxSize));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ordermanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tags the logging context of every request with a {@code requestId}, taken from the
+ * {@value #REQUEST_ID_HEADER} header when present, and decides whether the request's
+ * INFO and DEBUG logging is kept; see {@link SampledLoggingTurboFilter}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+    static final String REQUEST_ID_KEY = "requestId";
+    static final String SAMPLED_KEY = "sampled";
+    static final String NOT_SAMPLED = "false";
+
+    private final double infoSampleRate;
+
+    public RequestLoggingFilter(@Value("${logging.sampling.info-rate:1.0}") double infoSampleRate) {
+        this.infoSampleRate = infoSampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank()) {
+            requestId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        MDC.put(REQUEST_ID_KEY, requestId);
+        if (infoSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= infoSampleRate) {
+            MDC.put(SAMPLED_KEY, NOT_SAMPLED);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID_KEY);
+            MDC.remove(SAMPLED_KEY);
+        }
+    }
+}
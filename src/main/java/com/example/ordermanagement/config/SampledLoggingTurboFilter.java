@@ -0,0 +1,26 @@
+package com.example.ordermanagement.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops log events below WARN on threads serving a request that {@link RequestLoggingFilter}
+ * did not sample. Turbo filters run before a logging event is created, so the message of a
+ * dropped event is never formatted.
+ */
+public class SampledLoggingTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != null && level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return RequestLoggingFilter.NOT_SAMPLED.equals(MDC.get(RequestLoggingFilter.SAMPLED_KEY))
+                ? FilterReply.DENY
+                : FilterReply.NEUTRAL;
+    }
+}
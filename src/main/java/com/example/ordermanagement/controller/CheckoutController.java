@@ -0,0 +1,39 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.config.IdempotencyFilter;
+import com.example.ordermanagement.dto.CheckoutRequest;
+import com.example.ordermanagement.dto.CheckoutResult;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.service.CheckoutService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/checkout")
+@RequiredArgsConstructor
+public class CheckoutController {
+
+    private final CheckoutService checkoutService;
+
+    /**
+     * Places an order, pricing and redeeming its optional coupon, in one call. Retrying with the
+     * same {@code Idempotency-Key} returns the order already placed, with an
+     * {@code Idempotent-Replayed: true} header, instead of placing another one: usually from
+     * {@link IdempotencyFilter}, otherwise (e.g. after a restart) from the order's stored key
+     * with {@code 200 OK}.
+     */
+    @PostMapping
+    public ResponseEntity<Order> checkout(
+            @Valid @RequestBody CheckoutRequest request,
+            @RequestHeader(name = IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        CheckoutResult result = checkoutService.checkout(request, idempotencyKey);
+        return ResponseEntity.status(result.replayed() ? HttpStatus.OK : HttpStatus.CREATED)
+                .header(IdempotencyFilter.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.order());
+    }
+}
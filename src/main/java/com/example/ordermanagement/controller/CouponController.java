@@ -1,27 +1,56 @@
 package com.example.ordermanagement.controller;
 
+import com.example.ordermanagement.config.PaginationProperties;
+import com.example.ordermanagement.dto.CouponCampaignRequest;
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.dto.DiscountQuote;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
 import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponCampaign;
+import com.example.ordermanagement.service.CouponCampaignService;
+import com.example.ordermanagement.service.CouponCampaignService.CodeFormat;
 import com.example.ordermanagement.service.CouponService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/coupons")
 @RequiredArgsConstructor
 public class CouponController {
 
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final CouponService couponService;
+    private final CouponCampaignService campaignService;
+    private final PaginationProperties pagination;
 
+    /**
+     * Lists coupons one keyset page at a time; the next page's cursor is returned in the
+     * {@code X-Next-Cursor} header. {@code unpaged=true} returns every coupon at once.
+     */
     @GetMapping
-    public ResponseEntity<List<Coupon>> getAllCoupons() {
-        return ResponseEntity.ok(couponService.getAllCoupons());
+    public ResponseEntity<List<CouponView>> getAllCoupons(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return ResponseEntity.ok(couponService.getAllCoupons());
+        }
+        return CursorPages.ok(couponService.getCoupons(cursor, pagination.resolve(size)));
     }
 
     @GetMapping("/{id}")
@@ -57,20 +86,21 @@ public class CouponController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<Coupon>> getActiveCoupons() {
+    public ResponseEntity<List<CouponView>> getActiveCoupons() {
         return ResponseEntity.ok(couponService.getActiveCoupons());
     }
 
     @GetMapping("/valid")
-    public ResponseEntity<List<Coupon>> getValidCoupons() {
+    public ResponseEntity<List<CouponView>> getValidCoupons() {
         return ResponseEntity.ok(couponService.getValidCoupons());
     }
 
     @PostMapping("/calculate-discount")
     public ResponseEntity<Map<String, BigDecimal>> calculateDiscount(
             @RequestParam String code,
-            @RequestParam BigDecimal orderAmount) {
-        BigDecimal discount = couponService.calculateDiscount(code, orderAmount);
+            @RequestParam BigDecimal orderAmount,
+            @RequestParam(required = false) Long customerId) {
+        BigDecimal discount = couponService.calculateDiscount(code, orderAmount, customerId);
         return ResponseEntity.ok(Map.of(
                 "originalAmount", orderAmount,
                 "discount", discount,
@@ -78,9 +108,46 @@ public class CouponController {
         ));
     }
 
+    /**
+     * Quotes discounts for many (code, orderAmount) pairs in one call. Every item gets its own
+     * result; an invalid coupon fails only its item.
+     */
+    @PostMapping("/calculate-discount/batch")
+    public ResponseEntity<List<DiscountQuote>> quoteDiscounts(@RequestBody List<DiscountQuoteRequest> requests) {
+        return ResponseEntity.ok(couponService.quoteDiscounts(requests));
+    }
+
     @PatchMapping("/code/{code}/use")
     public ResponseEntity<Coupon> incrementUsedCountByCode(@PathVariable String code) {
-        Coupon coupon = couponService.getCouponByCode(code);
-        return ResponseEntity.ok(couponService.incrementUsedCount(coupon.getId()));
+        return ResponseEntity.ok(couponService.incrementUsedCountByCode(code));
+    }
+
+    /**
+     * Starts minting a campaign of coupons from one template in the background; poll the
+     * returned campaign for progress.
+     */
+    @PostMapping("/campaigns")
+    public ResponseEntity<CouponCampaign> startCampaign(@Valid @RequestBody CouponCampaignRequest request) {
+        CouponCampaign campaign = campaignService.startCampaign(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/coupons/campaigns/" + campaign.getId()))
+                .body(campaign);
+    }
+
+    @GetMapping("/campaigns/{id}")
+    public ResponseEntity<CouponCampaign> getCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(campaignService.getCampaign(id));
+    }
+
+    /**
+     * Streams the codes a campaign has minted so far, as CSV or, with {@code format=ndjson},
+     * as newline-delimited JSON.
+     */
+    @GetMapping("/campaigns/{id}/codes")
+    public ResponseEntity<StreamingResponseBody> getCampaignCodes(@PathVariable Long id,
+                                                                  @RequestParam(defaultValue = "csv") CodeFormat format) {
+        campaignService.getCampaign(id);
+        StreamingResponseBody body = out -> campaignService.writeCodes(id, format, out);
+        return ResponseEntity.ok().contentType(format == CodeFormat.CSV ? CSV : NDJSON).body(body);
     }
 }
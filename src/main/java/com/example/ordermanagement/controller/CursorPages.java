@@ -0,0 +1,27 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.dto.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Renders a {@link CursorPage} as a plain JSON array, so existing clients keep working,
+ * with the next cursor in the {@value #NEXT_CURSOR_HEADER} header. Shared by the servlet and
+ * reactive controllers.
+ */
+public final class CursorPages {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPages() {
+    }
+
+    public static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.items());
+    }
+}
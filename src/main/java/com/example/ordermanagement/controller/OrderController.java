@@ -1,26 +1,68 @@
 package com.example.ordermanagement.controller;
 
+import com.example.ordermanagement.config.PaginationProperties;
+import com.example.ordermanagement.dto.BulkOrderResult;
+import com.example.ordermanagement.dto.OrderExportFilter;
+import com.example.ordermanagement.dto.OrderSummary;
 import com.example.ordermanagement.entity.Order;
 import com.example.ordermanagement.entity.OrderStatus;
+import com.example.ordermanagement.service.BulkOrderService;
+import com.example.ordermanagement.service.OrderExportService;
 import com.example.ordermanagement.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final BulkOrderService bulkOrderService;
+    private final PaginationProperties pagination;
 
+    /**
+     * Lists orders one keyset page at a time; the next page's cursor is returned in the
+     * {@code X-Next-Cursor} header. {@code unpaged=true} returns every order at once.
+     */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<List<OrderSummary>> getAllOrders(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return ResponseEntity.ok(orderService.getAllOrders());
+        }
+        return CursorPages.ok(orderService.getOrders(cursor, pagination.resolve(size)));
+    }
+
+    /**
+     * Streams every matching order as newline-delimited JSON with constant memory use.
+     * All filters are optional; {@code createdTo} is exclusive.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        OrderExportFilter filter = new OrderExportFilter(status, customerId, createdFrom, createdTo);
+        StreamingResponseBody body = out -> orderExportService.exportOrders(filter, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -34,6 +76,15 @@ public class OrderController {
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
 
+    /**
+     * Creates many orders in one request; the response holds one result per submitted order,
+     * in request order.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkOrderResult>> createOrders(@RequestBody List<Order> orders) {
+        return ResponseEntity.ok(bulkOrderService.createOrders(orders));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @Valid @RequestBody Order order) {
         return ResponseEntity.ok(orderService.updateOrder(id, order));
@@ -53,12 +104,26 @@ public class OrderController {
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getOrdersByCustomerId(@PathVariable Long customerId) {
-        return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId));
+    public ResponseEntity<List<OrderSummary>> getOrdersByCustomerId(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId));
+        }
+        return CursorPages.ok(orderService.getOrdersByCustomerId(customerId, cursor, pagination.resolve(size)));
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable OrderStatus status) {
-        return ResponseEntity.ok(orderService.getOrdersByStatus(status));
+    public ResponseEntity<List<OrderSummary>> getOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return ResponseEntity.ok(orderService.getOrdersByStatus(status));
+        }
+        return CursorPages.ok(orderService.getOrdersByStatus(status, cursor, pagination.resolve(size)));
     }
 }
@@ -0,0 +1,26 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+
+/**
+ * A percentage of orders of at least the minimum, rounded half-up to cents and capped at a
+ * maximum discount.
+ */
+public record CappedPercentageDiscount(long minOrderCents, long basisPoints, long maxDiscountCents)
+        implements DiscountRule {
+
+    @Override
+    public long discountCents(long orderCents, Long customerId) {
+        if (orderCents < minOrderCents) {
+            return BELOW_MINIMUM;
+        }
+        return Math.min(Cents.percentage(orderCents, basisPoints), maxDiscountCents);
+    }
+
+    @Override
+    public BigDecimal subCentDiscount(BigDecimal orderAmount, long orderCents) {
+        BigDecimal discount = Cents.percentage(orderAmount, basisPoints);
+        BigDecimal maxDiscount = Cents.toBigDecimal(maxDiscountCents);
+        return discount.compareTo(maxDiscount) > 0 ? maxDiscount : discount;
+    }
+}
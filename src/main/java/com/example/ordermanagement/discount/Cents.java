@@ -0,0 +1,80 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts as a {@code long} count of cents, so that the discount engine can compare and
+ * price without allocating; {@link BigDecimal} stays at the API and persistence boundary.
+ * A percentage in cents is a number of basis points.
+ * <p>
+ * Amounts that are not a whole number of cents, or that do not fit, convert to
+ * {@link #NOT_CENTS} for the caller to round or refuse.
+ */
+public final class Cents {
+
+    public static final long NOT_CENTS = Long.MIN_VALUE;
+
+    // Up to 16 integer digits, so that every amount converted here stays below 10^18 cents
+    private static final int MAX_INTEGER_DIGITS = 16;
+    private static final long BASIS_POINTS_PER_UNIT = 10_000;
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private Cents() {
+    }
+
+    /**
+     * @return the amount in cents, or {@link #NOT_CENTS} if it is null, has a fraction of a
+     * cent or is too large
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            return NOT_CENTS;
+        }
+        if (amount.scale() > 2) {
+            amount = amount.stripTrailingZeros();
+            if (amount.scale() > 2) {
+                return NOT_CENTS;
+            }
+        }
+        if (amount.precision() - amount.scale() > MAX_INTEGER_DIGITS) {
+            return NOT_CENTS;
+        }
+        return amount.movePointRight(2).longValue();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Takes the given percentage of an amount, rounding half-up to whole cents exactly like
+     * {@code amount.multiply(percent).divide(100, 2, RoundingMode.HALF_UP)}.
+     *
+     * @param basisPoints the percentage in cents, e.g. 1250 for 12.50%
+     * @return the share in cents, or {@link #NOT_CENTS} if the product overflows
+     */
+    public static long percentage(long cents, long basisPoints) {
+        long product = cents * basisPoints;
+        if (Math.multiplyHigh(cents, basisPoints) != (product >> 63)) {
+            return NOT_CENTS;
+        }
+        long share = product / BASIS_POINTS_PER_UNIT;
+        long remainder = product % BASIS_POINTS_PER_UNIT;
+        // HALF_UP rounds ties away from zero
+        if (Math.abs(remainder) * 2 >= BASIS_POINTS_PER_UNIT) {
+            share += Long.signum(product);
+        }
+        return share;
+    }
+
+    /**
+     * Takes the given percentage of an amount with any number of decimals, rounding half-up to
+     * whole cents; the slow path for amounts that are not a whole number of cents.
+     *
+     * @param basisPoints the percentage in cents, e.g. 1250 for 12.50%
+     */
+    public static BigDecimal percentage(BigDecimal amount, long basisPoints) {
+        return amount.multiply(BigDecimal.valueOf(basisPoints, 2)).divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+
+/**
+ * Restricts another rule to the orders of a single customer.
+ */
+public record CustomerDiscount(long customerId, DiscountRule rule) implements DiscountRule {
+
+    @Override
+    public long discountCents(long orderCents, Long orderingCustomerId) {
+        if (orderingCustomerId == null || orderingCustomerId != customerId) {
+            return OTHER_CUSTOMER;
+        }
+        return rule.discountCents(orderCents, orderingCustomerId);
+    }
+
+    @Override
+    public BigDecimal subCentDiscount(BigDecimal orderAmount, long orderCents) {
+        return rule.subCentDiscount(orderAmount, orderCents);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+
+/**
+ * A coupon's discount, compiled once from its settings into an immutable evaluator (see
+ * {@code Coupon#discountRule()}). Evaluating an order works on whole cents, allocates nothing
+ * and never reads the coupon's settings again.
+ * <p>
+ * Rejections are reported as negative return values rather than exceptions, so that callers
+ * pricing many orders pay nothing for them.
+ */
+public sealed interface DiscountRule
+        permits FixedDiscount, PercentageDiscount, CappedPercentageDiscount, TieredDiscount, CustomerDiscount {
+
+    /**
+     * The order amount is below the coupon's minimum.
+     */
+    long BELOW_MINIMUM = -1;
+
+    /**
+     * The coupon is restricted to another customer, or the customer is unknown.
+     */
+    long OTHER_CUSTOMER = -2;
+
+    /**
+     * The largest order amount, in cents, that rules are guaranteed to price without overflow.
+     */
+    long MAX_ORDER_CENTS = 100_000_000_000_000L;
+
+    /**
+     * The largest percentage a rule may take, in basis points.
+     */
+    long MAX_BASIS_POINTS = 5_000;
+
+    /**
+     * @param orderCents the order amount, from 0 to {@link #MAX_ORDER_CENTS}
+     * @param customerId the ordering customer, or null if unknown
+     * @return the discount in cents, at most the order amount, or {@link #BELOW_MINIMUM} or
+     * {@link #OTHER_CUSTOMER}
+     */
+    long discountCents(long orderCents, Long customerId);
+
+    /**
+     * Prices an order amount with a fraction of a cent, which whole cents cannot represent:
+     * percentages are taken of the unrounded amount, and a discount capped at the order amount
+     * is the unrounded amount itself. Only called once {@link #discountCents} accepted the
+     * amount rounded down to cents; as minimums and thresholds are whole cents, that decides
+     * them exactly as the unrounded amount would.
+     *
+     * @param orderAmount the order amount, with more than two decimals
+     * @param orderCents  the order amount rounded down to cents
+     * @return the discount, at most the order amount
+     */
+    BigDecimal subCentDiscount(BigDecimal orderAmount, long orderCents);
+}
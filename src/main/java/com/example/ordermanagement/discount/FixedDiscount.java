@@ -0,0 +1,20 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+
+/**
+ * A fixed amount off orders of at least the minimum, capped at the order amount.
+ */
+public record FixedDiscount(long minOrderCents, long valueCents) implements DiscountRule {
+
+    @Override
+    public long discountCents(long orderCents, Long customerId) {
+        return orderCents < minOrderCents ? BELOW_MINIMUM : Math.min(valueCents, orderCents);
+    }
+
+    @Override
+    public BigDecimal subCentDiscount(BigDecimal orderAmount, long orderCents) {
+        // The value is whole cents, so it exceeds the amount exactly when it exceeds its cents
+        return valueCents <= orderCents ? Cents.toBigDecimal(valueCents) : orderAmount;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+
+/**
+ * A percentage of any order amount, rounded half-up to cents.
+ */
+public record PercentageDiscount(long basisPoints) implements DiscountRule {
+
+    @Override
+    public long discountCents(long orderCents, Long customerId) {
+        return Cents.percentage(orderCents, basisPoints);
+    }
+
+    @Override
+    public BigDecimal subCentDiscount(BigDecimal orderAmount, long orderCents) {
+        return Cents.percentage(orderAmount, basisPoints);
+    }
+}
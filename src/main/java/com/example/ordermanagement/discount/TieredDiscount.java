@@ -0,0 +1,70 @@
+package com.example.ordermanagement.discount;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A percentage that grows with the order amount: each tier applies from its threshold up to
+ * the next one, and orders below the first threshold get no discount.
+ */
+public final class TieredDiscount implements DiscountRule {
+
+    private final long[] thresholdCents;
+    private final long[] basisPoints;
+
+    /**
+     * @param thresholdCents the tier thresholds in strictly ascending order
+     * @param basisPoints    the percentage of each tier
+     */
+    public TieredDiscount(long[] thresholdCents, long[] basisPoints) {
+        if (thresholdCents.length == 0 || thresholdCents.length != basisPoints.length) {
+            throw new IllegalArgumentException("Every tier needs a threshold and a percentage");
+        }
+        for (int i = 1; i < thresholdCents.length; i++) {
+            if (thresholdCents[i] <= thresholdCents[i - 1]) {
+                throw new IllegalArgumentException("Tier thresholds must be strictly ascending");
+            }
+        }
+        this.thresholdCents = thresholdCents.clone();
+        this.basisPoints = basisPoints.clone();
+    }
+
+    @Override
+    public long discountCents(long orderCents, Long customerId) {
+        if (orderCents < thresholdCents[0]) {
+            return BELOW_MINIMUM;
+        }
+        return Cents.percentage(orderCents, basisPoints[tierOf(orderCents)]);
+    }
+
+    @Override
+    public BigDecimal subCentDiscount(BigDecimal orderAmount, long orderCents) {
+        return Cents.percentage(orderAmount, basisPoints[tierOf(orderCents)]);
+    }
+
+    private int tierOf(long orderCents) {
+        int tier = thresholdCents.length - 1;
+        while (orderCents < thresholdCents[tier]) {
+            tier--;
+        }
+        return tier;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TieredDiscount tiered
+                && Arrays.equals(thresholdCents, tiered.thresholdCents)
+                && Arrays.equals(basisPoints, tiered.basisPoints);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(thresholdCents) + Arrays.hashCode(basisPoints);
+    }
+
+    @Override
+    public String toString() {
+        return "TieredDiscount[thresholdCents=" + Arrays.toString(thresholdCents)
+                + ", basisPoints=" + Arrays.toString(basisPoints) + "]";
+    }
+}
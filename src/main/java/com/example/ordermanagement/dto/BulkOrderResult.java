@@ -0,0 +1,19 @@
+package com.example.ordermanagement.dto;
+
+/**
+ * Outcome of one item of a bulk order request.
+ *
+ * @param index position of the item in the request
+ * @param id    id of the created order, or null if it was rejected
+ * @param error why the item was rejected, or null if it was created
+ */
+public record BulkOrderResult(int index, Long id, String error) {
+
+    public static BulkOrderResult created(int index, Long id) {
+        return new BulkOrderResult(index, id, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String error) {
+        return new BulkOrderResult(index, null, error);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ordermanagement.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+/**
+ * An order to place at checkout, optionally redeeming a coupon. The final amount is computed
+ * by the server.
+ */
+public record CheckoutRequest(@NotBlank(message = "Order name is required") String name,
+                              @NotNull(message = "Original amount is required")
+                              @Positive(message = "Original amount must be positive") BigDecimal originalAmount,
+                              @NotNull(message = "Customer ID is required") Long customerId,
+                              String couponCode) {
+}
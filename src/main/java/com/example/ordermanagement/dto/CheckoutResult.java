@@ -0,0 +1,13 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.Order;
+
+/**
+ * Outcome of a checkout.
+ *
+ * @param order    the placed order
+ * @param replayed true if the order had already been placed by an earlier request with the
+ *                 same idempotency key, and nothing was done this time
+ */
+public record CheckoutResult(Order order, boolean replayed) {
+}
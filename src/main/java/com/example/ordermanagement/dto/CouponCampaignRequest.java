@@ -0,0 +1,17 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.Coupon;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * A coupon campaign to mint: {@code quantity} coupons with generated codes, all sharing the
+ * settings of {@code template}, whose own code is ignored.
+ */
+public record CouponCampaignRequest(@NotBlank(message = "Campaign name is required") String name,
+                                    @NotNull(message = "Quantity is required")
+                                    @Positive(message = "Quantity must be positive") Integer quantity,
+                                    @NotNull(message = "Coupon template is required") @Valid Coupon template) {
+}
@@ -0,0 +1,36 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.entity.DiscountTier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only view of a coupon used by the listing endpoints, selected straight into this record
+ * by the repository instead of loading managed entities.
+ */
+public record CouponView(Long id,
+                         String code,
+                         CouponType type,
+                         BigDecimal value,
+                         BigDecimal minOrderAmount,
+                         BigDecimal maxDiscountAmount,
+                         List<DiscountTier> tiers,
+                         Long customerId,
+                         Integer maxUses,
+                         Integer usedCount,
+                         LocalDateTime validFrom,
+                         LocalDateTime validUntil,
+                         Boolean active,
+                         Boolean highContention) {
+
+    public static CouponView of(Coupon coupon) {
+        return new CouponView(coupon.getId(), coupon.getCode(), coupon.getType(), coupon.getValue(),
+                coupon.getMinOrderAmount(), coupon.getMaxDiscountAmount(), coupon.getTiers(), coupon.getCustomerId(),
+                coupon.getMaxUses(), coupon.getUsedCount(),
+                coupon.getValidFrom(), coupon.getValidUntil(), coupon.getActive(), coupon.getHighContention());
+    }
+}
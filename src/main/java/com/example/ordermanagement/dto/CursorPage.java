@@ -0,0 +1,33 @@
+package com.example.ordermanagement.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing, ordered by ascending id.
+ *
+ * @param items      the rows of this page
+ * @param nextCursor the id to pass as {@code cursor} to fetch the next page, or null on the last page
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor) {
+
+    /**
+     * Returns the id to list after for the given {@code cursor}: the start of the listing
+     * when none is given.
+     */
+    public static long startOf(Long cursor) {
+        return cursor != null ? cursor : 0L;
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code limit + 1} rows; the extra row
+     * only signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, idOf.apply(items.get(limit - 1)));
+    }
+}
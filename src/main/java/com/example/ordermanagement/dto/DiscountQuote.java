@@ -0,0 +1,22 @@
+package com.example.ordermanagement.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of one item of a batch discount quotation: either the discount and final amount,
+ * or the reason the coupon cannot be applied.
+ */
+public record DiscountQuote(String code,
+                            BigDecimal originalAmount,
+                            BigDecimal discount,
+                            BigDecimal finalAmount,
+                            String error) {
+
+    public static DiscountQuote applied(String code, BigDecimal originalAmount, BigDecimal discount) {
+        return new DiscountQuote(code, originalAmount, discount, originalAmount.subtract(discount), null);
+    }
+
+    public static DiscountQuote rejected(String code, BigDecimal originalAmount, String error) {
+        return new DiscountQuote(code, originalAmount, null, null, error);
+    }
+}
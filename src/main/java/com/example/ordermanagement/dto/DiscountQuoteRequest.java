@@ -0,0 +1,14 @@
+package com.example.ordermanagement.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One (coupon code, order amount) pair of a batch discount quotation, optionally for a
+ * given customer.
+ */
+public record DiscountQuoteRequest(String code, BigDecimal orderAmount, Long customerId) {
+
+    public DiscountQuoteRequest(String code, BigDecimal orderAmount) {
+        this(code, orderAmount, null);
+    }
+}
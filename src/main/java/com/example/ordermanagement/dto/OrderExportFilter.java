@@ -0,0 +1,17 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria for the order export; null fields do not filter.
+ *
+ * @param createdFrom inclusive lower bound on {@code createdAt}
+ * @param createdTo   exclusive upper bound on {@code createdAt}
+ */
+public record OrderExportFilter(OrderStatus status,
+                                Long customerId,
+                                LocalDateTime createdFrom,
+                                LocalDateTime createdTo) {
+}
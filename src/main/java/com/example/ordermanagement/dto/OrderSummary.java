@@ -0,0 +1,17 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of an order used by the listing endpoints. It is selected straight into this
+ * record by the repository, so no entity is managed and the audit timestamps are not fetched.
+ */
+public record OrderSummary(Long id,
+                           String name,
+                           BigDecimal originalAmount,
+                           BigDecimal finalAmount,
+                           OrderStatus status,
+                           Long customerId) {
+}
@@ -0,0 +1,7 @@
+package com.example.ordermanagement.entity;
+
+public enum CampaignStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -1,25 +1,44 @@
 package com.example.ordermanagement.entity;
 
+import com.example.ordermanagement.discount.CappedPercentageDiscount;
+import com.example.ordermanagement.discount.Cents;
+import com.example.ordermanagement.discount.CustomerDiscount;
+import com.example.ordermanagement.discount.DiscountRule;
+import com.example.ordermanagement.discount.FixedDiscount;
+import com.example.ordermanagement.discount.PercentageDiscount;
+import com.example.ordermanagement.discount.TieredDiscount;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 
 @Entity
-@Table(name = "coupons")
+@Table(name = "coupons", indexes = {
+        // Valid-coupon lookup: equality on active, then the validity window
+        @Index(name = "idx_coupons_active_validity", columnList = "active, valid_until, valid_from"),
+        // Code listings of a campaign, in minting order
+        @Index(name = "idx_coupons_campaign", columnList = "campaign_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Coupon {
 
-    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final int CODE_LENGTH = 8;
-
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -47,8 +66,10 @@ public class Coupon {
     @Column(name = "max_uses", nullable = false)
     private Integer maxUses;
 
+    // Only ever changed through conditional UPDATE statements in CouponRepository, so that
+    // saving an edited coupon can never overwrite concurrently redeemed uses.
     @PositiveOrZero(message = "Used count cannot be negative")
-    @Column(name = "used_count", nullable = false)
+    @Column(name = "used_count", nullable = false, updatable = false)
     private Integer usedCount = 0;
 
     @NotNull(message = "Valid from date is required")
@@ -62,35 +83,72 @@ public class Coupon {
     @Column(nullable = false)
     private Boolean active = true;
 
+    // Redemptions are handed out from in-memory striped budgets and reconciled in the background
+    @ColumnDefault("false")
+    @Column(name = "high_contention", nullable = false)
+    private Boolean highContention = false;
+
+    // Required by CAPPED_PERCENTAGE
+    @Positive(message = "Maximum discount amount must be positive")
+    @Column(name = "max_discount_amount")
+    private BigDecimal maxDiscountAmount;
+
+    // Required by TIERED
+    @Convert(converter = DiscountTiersConverter.class)
+    @Column(name = "discount_tiers", length = 500)
+    private List<DiscountTier> tiers;
+
+    // Restricts the coupon to the orders of one customer
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // Set when the coupon was minted by a campaign
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "campaign_id", updatable = false)
+    private Long campaignId;
+
+    // Optimistic lock: a save based on a stale read fails instead of overwriting a concurrent
+    // edit. Usage counters are not versioned, so redemptions never conflict with edits
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // The discount rule compiled from the settings above, compiled again whenever one of them is
+    // replaced
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private CompiledRule compiledRule;
+
     @PrePersist
     protected void onCreate() {
-        if (code == null || code.isEmpty()) {
-            code = generateRandomCode();
-        }
-        validatePercentageValue();
+        discountRule();
     }
 
     @PreUpdate
     protected void onUpdate() {
-        validatePercentageValue();
+        discountRule();
     }
 
-    private void validatePercentageValue() {
-        if (type == CouponType.PERCENTAGE && value != null) {
-            if (value.compareTo(BigDecimal.valueOf(50)) > 0) {
-                throw new IllegalArgumentException("Percentage discount cannot exceed 50%");
-            }
-        }
+    @PostLoad
+    protected void onLoad() {
+        discountRule();
     }
 
-    private String generateRandomCode() {
-        SecureRandom random = new SecureRandom();
-        StringBuilder sb = new StringBuilder(CODE_LENGTH);
-        for (int i = 0; i < CODE_LENGTH; i++) {
-            int index = random.nextInt(CHARACTERS.length());
-            sb.append(CHARACTERS.charAt(index));
-        }
-        return sb.toString();
+    /**
+     * Returns a detached copy of this coupon. Settings are immutable values and are shared, and
+     * so is the compiled discount rule.
+     */
+    public Coupon copy() {
+        Coupon copy = new Coupon(id, code, type, value, minOrderAmount, maxUses, usedCount, validFrom, validUntil,
+                active, highContention, maxDiscountAmount, tiers, customerId, campaignId, version, null);
+        copy.compiledRule = compiledRule;
+        return copy;
     }
 
     public boolean isValid() {
@@ -101,14 +159,108 @@ public class Coupon {
                 && now.isBefore(validUntil);
     }
 
+    /**
+     * Whether the coupon is valid and its minimum, if any, is met; customer restrictions are not
+     * checked.
+     */
     public boolean canApplyToOrder(BigDecimal orderAmount) {
         if (!isValid()) {
             return false;
         }
-        // Only check minOrderAmount for FIXED type coupons
-        if (type == CouponType.FIXED) {
-            return orderAmount.compareTo(minOrderAmount) >= 0;
+        // Rounded down, as minimums are whole cents this compares as the full amount would
+        long orderCents = Cents.of(orderAmount.setScale(2, RoundingMode.FLOOR));
+        // Priced as for the coupon's own customer, so that only the minimum can refuse it
+        return discountRule().discountCents(orderCents, customerId) != DiscountRule.BELOW_MINIMUM;
+    }
+
+    /**
+     * Returns the evaluator of this coupon's discount, compiled on load and again after any of
+     * its discount settings is replaced.
+     *
+     * @throws IllegalArgumentException if the settings do not make a valid discount of its type
+     */
+    public DiscountRule discountRule() {
+        CompiledRule compiled = compiledRule;
+        if (compiled == null || !compiled.isCompiledFrom(this)) {
+            compiled = new CompiledRule(type, value, minOrderAmount, maxDiscountAmount, tiers, customerId, compileRule());
+            compiledRule = compiled;
+        }
+        return compiled.rule();
+    }
+
+    private DiscountRule compileRule() {
+        if (type == null || value == null || minOrderAmount == null) {
+            throw new IllegalArgumentException("Coupon type, value and minimum order amount are required");
+        }
+        long minOrderCents = toCents(minOrderAmount, "Minimum order amount");
+        DiscountRule rule = switch (type) {
+            case FIXED -> new FixedDiscount(minOrderCents, toCents(value, "Value"));
+            case PERCENTAGE -> new PercentageDiscount(toBasisPoints(value));
+            case CAPPED_PERCENTAGE -> {
+                if (maxDiscountAmount == null) {
+                    throw new IllegalArgumentException("Capped percentage discount requires a maximum discount amount");
+                }
+                yield new CappedPercentageDiscount(minOrderCents, toBasisPoints(value),
+                        toCents(maxDiscountAmount, "Maximum discount amount"));
+            }
+            case TIERED -> compileTiers(minOrderCents);
+        };
+        return customerId != null ? new CustomerDiscount(customerId, rule) : rule;
+    }
+
+    private DiscountRule compileTiers(long minOrderCents) {
+        if (tiers == null || tiers.isEmpty()) {
+            throw new IllegalArgumentException("Tiered discount requires at least one tier");
+        }
+        List<DiscountTier> sorted = tiers.stream()
+                .sorted(Comparator.comparing(DiscountTier::minOrderAmount))
+                .toList();
+        long[] thresholdCents = new long[sorted.size() + 1];
+        long[] basisPoints = new long[sorted.size() + 1];
+        thresholdCents[0] = minOrderCents;
+        basisPoints[0] = toBasisPoints(value);
+        for (int i = 0; i < sorted.size(); i++) {
+            DiscountTier tier = sorted.get(i);
+            if (tier.minOrderAmount() == null || tier.percent() == null || tier.percent().signum() <= 0) {
+                throw new IllegalArgumentException("Every tier needs a minimum order amount and a positive percentage");
+            }
+            thresholdCents[i + 1] = toCents(tier.minOrderAmount(), "Tier minimum order amount");
+            basisPoints[i + 1] = toBasisPoints(tier.percent());
+            if (thresholdCents[i + 1] <= thresholdCents[i]) {
+                throw new IllegalArgumentException("Tier minimum order amounts must be distinct and above the coupon minimum");
+            }
+        }
+        return new TieredDiscount(thresholdCents, basisPoints);
+    }
+
+    private static long toCents(BigDecimal amount, String name) {
+        long cents = Cents.of(amount);
+        if (cents == Cents.NOT_CENTS) {
+            throw new IllegalArgumentException(name + " must be a whole number of cents");
+        }
+        return cents;
+    }
+
+    private static long toBasisPoints(BigDecimal percent) {
+        long basisPoints = toCents(percent, "Percentage");
+        if (basisPoints > DiscountRule.MAX_BASIS_POINTS) {
+            throw new IllegalArgumentException("Percentage discount cannot exceed 50%");
+        }
+        return basisPoints;
+    }
+
+    private record CompiledRule(CouponType type, BigDecimal value, BigDecimal minOrderAmount,
+                                BigDecimal maxDiscountAmount, List<DiscountTier> tiers, Long customerId,
+                                DiscountRule rule) {
+
+        // By reference: cheap enough for every evaluation, and any replaced setting recompiles
+        boolean isCompiledFrom(Coupon coupon) {
+            return type == coupon.type
+                    && value == coupon.value
+                    && minOrderAmount == coupon.minOrderAmount
+                    && maxDiscountAmount == coupon.maxDiscountAmount
+                    && tiers == coupon.tiers
+                    && customerId == coupon.customerId;
         }
-        return true;
     }
 }
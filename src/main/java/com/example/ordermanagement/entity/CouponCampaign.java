@@ -0,0 +1,44 @@
+package com.example.ordermanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A batch of coupons minted from one template; {@code minted} grows with every committed
+ * batch, so it doubles as the progress of a running campaign.
+ */
+@Entity
+@Table(name = "coupon_campaigns")
+@Data
+@NoArgsConstructor
+public class CouponCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Integer minted = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CampaignStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(length = 1000)
+    private String error;
+}
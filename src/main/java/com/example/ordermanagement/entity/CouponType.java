@@ -1,6 +1,17 @@
 package com.example.ordermanagement.entity;
 
+/**
+ * How a coupon's discount is worked out; each type compiles to a
+ * {@link com.example.ordermanagement.discount.DiscountRule}. Any type can additionally be
+ * restricted to one customer with {@link Coupon#getCustomerId()}.
+ */
 public enum CouponType {
+    /** {@code value}% of any order amount. */
     PERCENTAGE,
-    FIXED
+    /** {@code value} off orders of at least {@code minOrderAmount}, capped at the order amount. */
+    FIXED,
+    /** {@code value}% of orders of at least {@code minOrderAmount}, capped at {@code maxDiscountAmount}. */
+    CAPPED_PERCENTAGE,
+    /** {@code value}% from {@code minOrderAmount}, raised to each tier's percentage from its threshold. */
+    TIERED
 }
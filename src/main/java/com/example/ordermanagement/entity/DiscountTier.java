@@ -0,0 +1,9 @@
+package com.example.ordermanagement.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * One step of a TIERED coupon: {@code percent} off orders of at least {@code minOrderAmount}.
+ */
+public record DiscountTier(BigDecimal minOrderAmount, BigDecimal percent) {
+}
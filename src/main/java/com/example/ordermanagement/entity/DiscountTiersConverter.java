@@ -0,0 +1,48 @@
+package com.example.ordermanagement.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the tiers of a TIERED coupon in one column as {@code minOrderAmount:percent} pairs
+ * separated by semicolons, e.g. {@code 100.00:5.00;250.00:10.00}.
+ */
+@Converter
+public class DiscountTiersConverter implements AttributeConverter<List<DiscountTier>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<DiscountTier> tiers) {
+        if (tiers == null || tiers.isEmpty()) {
+            return null;
+        }
+        StringBuilder column = new StringBuilder();
+        for (DiscountTier tier : tiers) {
+            if (!column.isEmpty()) {
+                column.append(';');
+            }
+            column.append(tier.minOrderAmount().toPlainString()).append(':').append(tier.percent().toPlainString());
+        }
+        return column.toString();
+    }
+
+    @Override
+    public List<DiscountTier> convertToEntityAttribute(String column) {
+        if (column == null || column.isBlank()) {
+            return null;
+        }
+        List<DiscountTier> tiers = new ArrayList<>();
+        for (String pair : column.split(";")) {
+            int separator = pair.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed discount tier: " + pair);
+            }
+            tiers.add(new DiscountTier(new BigDecimal(pair.substring(0, separator)),
+                    new BigDecimal(pair.substring(separator + 1))));
+        }
+        return tiers;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ordermanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The response stored for a request sent with an {@code Idempotency-Key}, kept only when
+ * {@code idempotency.store.persistent=true} so that replays survive a restart.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(length = 2000)
+    private String location;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
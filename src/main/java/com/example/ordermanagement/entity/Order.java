@@ -1,5 +1,6 @@
 package com.example.ordermanagement.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -7,19 +8,31 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Customer listings; the trailing id serves the keyset order without a sort
+        @Index(name = "idx_orders_customer_id", columnList = "customer_id, id"),
+        @Index(name = "idx_orders_customer_status", columnList = "customer_id, status"),
+        // Status listings in keyset order, and the status / created_at range filters of the export
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at"),
+        // Checkout retries find the order already placed under their key
+        @Index(name = "uk_orders_idempotency_key", columnList = "idempotency_key", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    // Pooled sequence rather than IDENTITY so that Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Order name is required")
@@ -45,6 +58,27 @@ public class Order {
     @Column(name = "customer_id", nullable = false)
     private Long customerId;
 
+    /**
+     * The coupon redeemed by the checkout that placed this order, if any.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "coupon_code", updatable = false)
+    private String couponCode;
+
+    /**
+     * The {@code Idempotency-Key} of the checkout that placed this order, if any.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "idempotency_key", updatable = false)
+    private String idempotencyKey;
+
+    // Optimistic lock: a save based on a stale read fails instead of overwriting a concurrent change
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
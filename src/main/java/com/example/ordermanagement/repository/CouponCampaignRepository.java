@@ -0,0 +1,9 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.CouponCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CouponCampaignRepository extends JpaRepository<CouponCampaign, Long> {
+}
@@ -1,13 +1,17 @@
 package com.example.ordermanagement.repository;
 
+import com.example.ordermanagement.dto.CouponView;
 import com.example.ordermanagement.entity.Coupon;
 import com.example.ordermanagement.entity.CouponType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,13 +20,75 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
 
     Optional<Coupon> findByCode(String code);
 
+    List<Coupon> findByCodeIn(Collection<String> codes);
+
     List<Coupon> findByActive(Boolean active);
 
     List<Coupon> findByType(CouponType type);
 
-    @Query("SELECT c FROM Coupon c WHERE c.active = true AND c.usedCount < c.maxUses " +
+    boolean existsByCode(String code);
+
+    // Listing queries select CouponView records through a constructor expression rather than entities
+
+    List<CouponView> findViewsByOrderByIdAsc();
+
+    List<CouponView> findViewsByActive(Boolean active);
+
+    @Query("SELECT new com.example.ordermanagement.dto.CouponView(c.id, c.code, c.type, c.value, " +
+           "c.minOrderAmount, c.maxDiscountAmount, c.tiers, c.customerId, c.maxUses, c.usedCount, " +
+           "c.validFrom, c.validUntil, c.active, c.highContention) " +
+           "FROM Coupon c WHERE c.active = true AND c.usedCount < c.maxUses " +
            "AND c.validFrom <= :now AND c.validUntil >= :now")
-    List<Coupon> findAllValidCoupons(@Param("now") LocalDateTime now);
+    List<CouponView> findAllValidCoupons(@Param("now") LocalDateTime now);
 
-    boolean existsByCode(String code);
+    /**
+     * Coupons that are valid now or will become valid later, for {@code ValidCouponIndex}.
+     */
+    @Query("SELECT new com.example.ordermanagement.dto.CouponView(c.id, c.code, c.type, c.value, " +
+           "c.minOrderAmount, c.maxDiscountAmount, c.tiers, c.customerId, c.maxUses, c.usedCount, " +
+           "c.validFrom, c.validUntil, c.active, c.highContention) " +
+           "FROM Coupon c WHERE c.active = true AND c.usedCount < c.maxUses AND c.validUntil >= :now")
+    List<CouponView> findAllUnexpiredCoupons(@Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.example.ordermanagement.dto.CouponView(c.id, c.code, c.type, c.value, " +
+           "c.minOrderAmount, c.maxDiscountAmount, c.tiers, c.customerId, c.maxUses, c.usedCount, " +
+           "c.validFrom, c.validUntil, c.active, c.highContention) " +
+           "FROM Coupon c WHERE c.active = true AND (c.usedCount >= c.maxUses OR c.validUntil < :now)")
+    List<CouponView> findAllExpiredActiveCoupons(@Param("now") LocalDateTime now);
+
+    List<CouponView> findViewsByIdGreaterThanOrderByIdAsc(Long cursor, Limit limit);
+
+    /**
+     * Redeems one use of the coupon in a single conditional update, so concurrent
+     * redemptions can never push {@code usedCount} past {@code maxUses}.
+     *
+     * High-contention coupons are skipped; they are redeemed through {@code CouponRedemptionLedger}.
+     *
+     * @return 1 if a use was redeemed, 0 if the coupon does not exist, is exhausted or is high-contention
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + 1 " +
+           "WHERE c.id = :id AND c.usedCount < c.maxUses AND c.highContention = false")
+    int incrementUsedCountIfAvailable(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + 1 " +
+           "WHERE c.code = :code AND c.usedCount < c.maxUses AND c.highContention = false")
+    int incrementUsedCountIfAvailableByCode(@Param("code") String code);
+
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + :delta WHERE c.id = :id")
+    int addUsedCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Switches off those of the given coupons that are still expired or used up, so a coupon
+     * extended or topped up in the meantime is left alone. Bumps their version, so that an edit
+     * based on an earlier read is retried.
+     *
+     * @return the number of coupons deactivated
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.active = false, c.version = c.version + 1 WHERE c.id IN :ids AND c.active = true " +
+           "AND (c.usedCount >= c.maxUses OR c.validUntil < :now)")
+    int deactivateIfExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
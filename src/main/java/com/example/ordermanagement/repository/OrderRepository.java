@@ -1,11 +1,21 @@
 package com.example.ordermanagement.repository;
 
+import com.example.ordermanagement.dto.OrderSummary;
 import com.example.ordermanagement.entity.Order;
 import com.example.ordermanagement.entity.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -15,4 +25,40 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByStatus(OrderStatus status);
 
     List<Order> findByCustomerIdAndStatus(Long customerId, OrderStatus status);
+
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
+
+    // Listing queries select OrderSummary records through a constructor expression rather than entities
+
+    List<OrderSummary> findSummariesByOrderByIdAsc();
+
+    List<OrderSummary> findSummariesByCustomerId(Long customerId);
+
+    List<OrderSummary> findSummariesByStatus(OrderStatus status);
+
+    // Keyset pagination: each page starts strictly after the last id of the previous one
+
+    List<OrderSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long cursor, Limit limit);
+
+    List<OrderSummary> findSummariesByCustomerIdAndIdGreaterThanOrderByIdAsc(Long customerId, Long cursor, Limit limit);
+
+    List<OrderSummary> findSummariesByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus status, Long cursor, Limit limit);
+
+    /**
+     * Streams matching orders in id order without materializing the result; null arguments
+     * do not filter. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE (:status IS NULL OR o.status = :status) " +
+           "AND (:customerId IS NULL OR o.customerId = :customerId) " +
+           "AND (:createdFrom IS NULL OR o.createdAt >= :createdFrom) " +
+           "AND (:createdTo IS NULL OR o.createdAt < :createdTo) " +
+           "ORDER BY o.id")
+    Stream<Order> streamForExport(@Param("status") OrderStatus status,
+                                  @Param("customerId") Long customerId,
+                                  @Param("createdFrom") LocalDateTime createdFrom,
+                                  @Param("createdTo") LocalDateTime createdTo);
 }
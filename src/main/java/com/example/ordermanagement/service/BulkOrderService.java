@@ -0,0 +1,123 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.BulkOrderResult;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many orders per call. Each order is validated on its own, and valid orders are
+ * inserted in JDBC batches of {@code order.bulk.batch-size}, one transaction per batch.
+ * An invalid order, or a batch that fails to insert, is reported in the per-item results
+ * and does not affect the other items.
+ */
+@Service
+@Slf4j
+public class BulkOrderService {
+
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMetrics orderMetrics;
+    private final int batchSize;
+    private final int maxItems;
+
+    public BulkOrderService(EntityManager entityManager,
+                            Validator validator,
+                            PlatformTransactionManager transactionManager,
+                            OrderMetrics orderMetrics,
+                            @Value("${order.bulk.batch-size:500}") int batchSize,
+                            @Value("${order.bulk.max-items:10000}") int maxItems) {
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderMetrics = orderMetrics;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    public List<BulkOrderResult> createOrders(List<Order> orders) {
+        if (orders.size() > maxItems) {
+            log.error("Bulk request of {} orders exceeds maximum of {}", orders.size(), maxItems);
+            throw new IllegalArgumentException("Bulk request cannot contain more than " + maxItems + " orders");
+        }
+        log.info("Creating {} orders in batches of {}", orders.size(), batchSize);
+
+        BulkOrderResult[] results = new BulkOrderResult[orders.size()];
+        List<Integer> batch = new ArrayList<>(batchSize);
+        for (int index = 0; index < orders.size(); index++) {
+            Order order = orders.get(index);
+            String error = validate(order);
+            if (error != null) {
+                results[index] = BulkOrderResult.rejected(index, error);
+                continue;
+            }
+            batch.add(index);
+            if (batch.size() == batchSize) {
+                insertBatch(orders, batch, results);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(orders, batch, results);
+        }
+
+        long created = Arrays.stream(results).filter(result -> result.id() != null).count();
+        orderMetrics.created(created);
+        log.info("Bulk order creation finished: {} created, {} rejected", created, orders.size() - created);
+        return Arrays.asList(results);
+    }
+
+    private String validate(Order order) {
+        if (order == null) {
+            return "Order is required";
+        }
+        order.setId(null);
+        order.setStatus(OrderStatus.CREATED);
+        Set<ConstraintViolation<Order>> violations = validator.validate(order);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void insertBatch(List<Order> orders, List<Integer> batch, BulkOrderResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (int index : batch) {
+                    entityManager.persist(orders.get(index));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (int index : batch) {
+                results[index] = BulkOrderResult.created(index, orders.get(index).getId());
+            }
+        } catch (DataAccessException | PersistenceException ex) {
+            log.error("Failed to insert batch of {} orders", batch.size(), ex);
+            for (int index : batch) {
+                results[index] = BulkOrderResult.rejected(index, "Batch insert failed: " + ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CheckoutRequest;
+import com.example.ordermanagement.dto.CheckoutResult;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import com.example.ordermanagement.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Places an order and redeems its coupon in one call and one transaction, with the final
+ * amount computed by {@link CouponService#calculateDiscount(String, BigDecimal, Long)}.
+ * <p>
+ * A checkout sent with an idempotency key stores the key on its order, under a unique index.
+ * Retrying it returns the order already placed without pricing or redeeming anything again,
+ * even when the retry races the original request.
+ */
+@Service
+@Timed("checkout.service")
+@Slf4j
+public class CheckoutService {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final OrderRepository orderRepository;
+    private final CouponService couponService;
+    private final OrderMetrics orderMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    public CheckoutService(OrderRepository orderRepository,
+                           CouponService couponService,
+                           OrderMetrics orderMetrics,
+                           PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.couponService = couponService;
+        this.orderMetrics = orderMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param idempotencyKey identifies the checkout across retries, or null
+     * @throws IllegalArgumentException if the key is too long, or was already used for a
+     *                                  different checkout
+     * @throws IllegalStateException    if the coupon cannot be applied or redeemed, or would
+     *                                  leave nothing to pay
+     */
+    public CheckoutResult checkout(CheckoutRequest request, String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency key cannot be longer than " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        log.info("Checking out order for customer: {} with coupon code: {}", request.customerId(), request.couponCode());
+        if (idempotencyKey != null) {
+            Optional<Order> placed = orderRepository.findByIdempotencyKey(idempotencyKey);
+            if (placed.isPresent()) {
+                return replay(placed.get(), request);
+            }
+        }
+
+        try {
+            Order order = transactionTemplate.execute(status -> placeOrder(request, idempotencyKey));
+            log.info("Checked out order id: {} for customer: {}", order.getId(), order.getCustomerId());
+            return new CheckoutResult(order, false);
+        } catch (RuntimeException ex) {
+            // A concurrent retry may have placed the order first, failing this one on the unique
+            // key or on the coupon it just used up; this transaction, redemption included, rolled back
+            Order placed = idempotencyKey == null ? null : orderRepository.findByIdempotencyKey(idempotencyKey).orElse(null);
+            if (placed == null) {
+                throw ex;
+            }
+            return replay(placed, request);
+        }
+    }
+
+    private Order placeOrder(CheckoutRequest request, String idempotencyKey) {
+        String code = request.couponCode();
+        BigDecimal discount = code != null
+                ? couponService.calculateDiscount(code, request.originalAmount(), request.customerId())
+                : BigDecimal.ZERO;
+        BigDecimal finalAmount = request.originalAmount().subtract(discount);
+        if (finalAmount.signum() <= 0) {
+            log.warn("Coupon code: {} would leave nothing to pay on {}", code, request.originalAmount());
+            throw new IllegalStateException("Discount cannot cover the whole order amount");
+        }
+
+        Order order = new Order();
+        order.setName(request.name());
+        order.setOriginalAmount(request.originalAmount());
+        order.setFinalAmount(finalAmount);
+        order.setCustomerId(request.customerId());
+        order.setStatus(OrderStatus.CREATED);
+        order.setCouponCode(code);
+        order.setIdempotencyKey(idempotencyKey);
+        // Flushed first, so that a duplicate key fails before the coupon is redeemed
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        if (code != null) {
+            couponService.incrementUsedCountByCode(code);
+        }
+        orderMetrics.created();
+        return savedOrder;
+    }
+
+    private static CheckoutResult replay(Order order, CheckoutRequest request) {
+        if (!Objects.equals(order.getCustomerId(), request.customerId())
+                || order.getOriginalAmount().compareTo(request.originalAmount()) != 0
+                || !Objects.equals(order.getCouponCode(), request.couponCode())) {
+            log.error("Idempotency key of order id: {} was reused for a different checkout", order.getId());
+            throw new IllegalArgumentException("Idempotency key was already used for a different checkout");
+        }
+        log.info("Replaying checkout of order id: {}", order.getId());
+        return new CheckoutResult(order, true);
+    }
+}
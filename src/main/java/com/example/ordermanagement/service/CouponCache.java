@@ -0,0 +1,169 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.repository.CouponRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, write-through cache of coupons keyed by code, sitting in front of
+ * {@link CouponRepository#findByCode(String)}.
+ * <p>
+ * Writes are applied after the surrounding transaction commits so that a rolled back
+ * change never becomes visible. A row loaded on a miss is only cached if no write to its
+ * stripe of codes happened while it was loading, so a reader that read the row before a
+ * writer committed cannot replace the writer's entry with the old row; among writes, the
+ * newest version and usage count wins. The cache keeps its own detached copies of the
+ * coupons and hands out copies, so callers never share a mutable instance. Hit, miss and
+ * eviction counts are published as the {@code cache.*} meters with {@code cache=coupons}.
+ */
+@Component
+public class CouponCache {
+
+    static final String CACHE_NAME = "coupons";
+
+    private static final int STRIPES = 64;
+
+    private final CouponRepository couponRepository;
+    private final Cache<String, Coupon> cache;
+    // Writes per stripe of codes, bumped inside the cache's per-key lock
+    private final AtomicLongArray writes = new AtomicLongArray(STRIPES);
+
+    public CouponCache(CouponRepository couponRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${coupon.cache.maximum-size:10000}") long maximumSize,
+                       @Value("${coupon.cache.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.couponRepository = couponRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the coupon with the given code, loading it from the database on a miss.
+     * Unknown codes are not cached.
+     * <p>
+     * The load deliberately happens outside the cache's per-key lock: a caller may already
+     * hold a pooled connection, and blocking it behind another thread's database read can
+     * exhaust the pool.
+     */
+    public Optional<Coupon> findByCode(String code) {
+        Optional<Coupon> cached = findCached(code);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = stamp(code);
+        Optional<Coupon> loaded = couponRepository.findByCode(code);
+        loaded.ifPresent(coupon -> putLoaded(coupon, stamp));
+        return loaded;
+    }
+
+    /**
+     * Returns the coupon with the given code only if it is cached, without touching the
+     * database; used by callers that load coupons through their own, non-blocking, access path.
+     */
+    public Optional<Coupon> findCached(String code) {
+        Coupon cached = cache.getIfPresent(code);
+        return cached != null ? Optional.of(cached.copy()) : Optional.empty();
+    }
+
+    /**
+     * Returns the coupons with the given codes, keyed by code. Codes missing from the cache are
+     * loaded with a single {@code IN} query; unknown codes are absent from the result.
+     */
+    public Map<String, Coupon> findAllByCodes(Set<String> codes) {
+        Map<String, Coupon> coupons = new HashMap<>();
+        Map<String, Long> stamps = new HashMap<>();
+        for (String code : codes) {
+            findCached(code).ifPresentOrElse(coupon -> coupons.put(code, coupon), () -> stamps.put(code, stamp(code)));
+        }
+        if (!stamps.isEmpty()) {
+            for (Coupon coupon : couponRepository.findByCodeIn(stamps.keySet())) {
+                putLoaded(coupon, stamps.get(coupon.getCode()));
+                coupons.put(coupon.getCode(), coupon);
+            }
+        }
+        return coupons;
+    }
+
+    /**
+     * Returns the stamp to pass to {@link #putLoaded} for a row of the given code that is about
+     * to be loaded.
+     */
+    public long stamp(String code) {
+        return writes.get(stripe(code));
+    }
+
+    /**
+     * Caches a coupon loaded on a miss, unless the code has been cached since or a write to its
+     * stripe happened after the stamp was taken, in which case the row may be stale.
+     */
+    public void putLoaded(Coupon coupon, long stamp) {
+        String code = coupon.getCode();
+        int stripe = stripe(code);
+        Coupon copy = coupon.copy();
+        cache.asMap().computeIfAbsent(code, key -> writes.get(stripe) == stamp ? copy : null);
+    }
+
+    /**
+     * Stores the given coupon once the current transaction (if any) has committed.
+     */
+    public void put(Coupon coupon) {
+        String code = coupon.getCode();
+        if (code == null) {
+            return;
+        }
+        Coupon copy = coupon.copy();
+        write(code, null);
+        AfterCommit.run(() -> write(code, copy));
+    }
+
+    /**
+     * Removes the coupon with the given code immediately and again after commit, so that a
+     * concurrent reader cannot re-populate the entry with the pre-commit row.
+     */
+    public void evict(String code) {
+        write(code, null);
+        AfterCommit.run(() -> write(code, null));
+    }
+
+    private void write(String code, Coupon coupon) {
+        int stripe = stripe(code);
+        cache.asMap().compute(code, (key, current) -> {
+            writes.incrementAndGet(stripe);
+            if (coupon == null || current == null) {
+                return coupon;
+            }
+            return isNewer(current, coupon) ? current : coupon;
+        });
+    }
+
+    // Edits bump the version; redemptions only the usage count, which never goes down
+    private static boolean isNewer(Coupon current, Coupon candidate) {
+        int versions = Long.compare(versionOf(current), versionOf(candidate));
+        return versions != 0 ? versions > 0 : current.getUsedCount() > candidate.getUsedCount();
+    }
+
+    private static long versionOf(Coupon coupon) {
+        return coupon.getVersion() != null ? coupon.getVersion() : 0;
+    }
+
+    private static int stripe(String code) {
+        int hash = code.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponCampaignRequest;
+import com.example.ordermanagement.entity.CampaignStatus;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponCampaign;
+import com.example.ordermanagement.entity.DiscountTiersConverter;
+import com.example.ordermanagement.exception.ResourceNotFoundException;
+import com.example.ordermanagement.repository.CouponCampaignRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mints coupon campaigns: many coupons sharing one template, each with its own generated code.
+ * <p>
+ * The template is validated once. Coupons are then inserted in the background, in JDBC batches
+ * of {@code coupon.campaign.batch-size}, one transaction per batch. Each batch transaction
+ * also advances the campaign's {@code minted} count, so the count shows the job's progress and
+ * never disagrees with the coupons stored. {@link CouponCodeGenerator} codes never collide with
+ * each other. A batch that hits a hand-picked code is retried with fresh codes.
+ */
+@Service
+@Slf4j
+public class CouponCampaignService {
+
+    private static final String INSERT_COUPON = "INSERT INTO coupons (code, type, discount_value, min_order_amount, " +
+            "max_uses, used_count, valid_from, valid_until, active, high_contention, max_discount_amount, " +
+            "discount_tiers, customer_id, campaign_id) VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_COUPON_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC,
+            Types.INTEGER, Types.TIMESTAMP, Types.TIMESTAMP, Types.BOOLEAN, Types.BOOLEAN, Types.NUMERIC,
+            Types.VARCHAR, Types.BIGINT, Types.BIGINT};
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final CouponCampaignRepository campaignRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CouponCodeGenerator codeGenerator;
+    private final CouponValidator couponValidator;
+    private final ValidCouponIndex validCouponIndex;
+    private final TransactionTemplate batchTransaction;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+    private final int maxQuantity;
+
+    public CouponCampaignService(CouponCampaignRepository campaignRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 CouponCodeGenerator codeGenerator,
+                                 CouponValidator couponValidator,
+                                 ValidCouponIndex validCouponIndex,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                 TaskExecutor taskExecutor,
+                                 @Value("${coupon.campaign.batch-size:1000}") int batchSize,
+                                 @Value("${coupon.campaign.max-quantity:1000000}") int maxQuantity) {
+        this.campaignRepository = campaignRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.codeGenerator = codeGenerator;
+        this.couponValidator = couponValidator;
+        this.validCouponIndex = validCouponIndex;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+        this.maxQuantity = maxQuantity;
+    }
+
+    /**
+     * Validates the campaign and starts minting it in the background.
+     *
+     * @return the campaign, still {@link CampaignStatus#RUNNING}
+     * @throws IllegalArgumentException if the quantity is too large or the template is invalid
+     */
+    public CouponCampaign startCampaign(CouponCampaignRequest request) {
+        if (request.quantity() > maxQuantity) {
+            log.error("Campaign of {} coupons exceeds maximum of {}", request.quantity(), maxQuantity);
+            throw new IllegalArgumentException("Campaign cannot contain more than " + maxQuantity + " coupons");
+        }
+        Coupon template = request.template();
+        couponValidator.validate(template);
+
+        CouponCampaign campaign = new CouponCampaign();
+        campaign.setName(request.name());
+        campaign.setQuantity(request.quantity());
+        campaign.setStatus(CampaignStatus.RUNNING);
+        campaign.setCreatedAt(LocalDateTime.now());
+        CouponCampaign savedCampaign = campaignRepository.save(campaign);
+        log.info("Minting campaign {} '{}' of {} {} coupons", savedCampaign.getId(), savedCampaign.getName(),
+                savedCampaign.getQuantity(), template.getType());
+
+        Object[] templateRow = templateRow(template, savedCampaign.getId());
+        taskExecutor.execute(() -> mint(savedCampaign.getId(), templateRow, savedCampaign.getQuantity()));
+        return savedCampaign;
+    }
+
+    /**
+     * Marks the campaigns a previous run left {@link CampaignStatus#RUNNING} as failed: their
+     * minting job died with that process. Like the minting itself, this assumes one instance.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedCampaigns() {
+        int failed = jdbcTemplate.update("UPDATE coupon_campaigns SET status = ?, completed_at = ?, error = ? WHERE status = ?",
+                CampaignStatus.FAILED.name(), LocalDateTime.now(), "Interrupted by a restart", CampaignStatus.RUNNING.name());
+        if (failed > 0) {
+            log.warn("Marked {} campaigns interrupted by a restart as failed", failed);
+        }
+    }
+
+    public CouponCampaign getCampaign(Long id) {
+        return campaignRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Campaign not found with id: {}", id);
+                    return new ResourceNotFoundException("Campaign not found with id: " + id);
+                });
+    }
+
+    /**
+     * Writes the codes minted so far by a campaign, in minting order, straight from the
+     * database cursor.
+     *
+     * @return the number of codes written
+     */
+    public long writeCodes(Long campaignId, CodeFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == CodeFormat.CSV) {
+            writer.write("code\n");
+        }
+        long[] count = {0};
+        try {
+            jdbcTemplate.query("SELECT code FROM coupons WHERE campaign_id = ? ORDER BY id",
+                    statement -> {
+                        statement.setLong(1, campaignId);
+                        statement.setFetchSize(batchSize);
+                    },
+                    row -> {
+                        try {
+                            format.write(row.getString(1), writer);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        count[0]++;
+                    });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+        log.info("Wrote {} codes of campaign {} as {}", count[0], campaignId, format);
+        return count[0];
+    }
+
+    private void mint(Long campaignId, Object[] templateRow, int quantity) {
+        int minted = 0;
+        CampaignStatus status = CampaignStatus.COMPLETED;
+        String error = null;
+        try {
+            while (minted < quantity) {
+                int size = Math.min(batchSize, quantity - minted);
+                insertBatch(campaignId, templateRow, size);
+                minted += size;
+            }
+            log.info("Campaign {} minted {} coupons", campaignId, minted);
+        } catch (RuntimeException ex) {
+            log.error("Campaign {} failed after {} of {} coupons", campaignId, minted, quantity, ex);
+            status = CampaignStatus.FAILED;
+            error = ex.getMessage();
+        }
+        try {
+            // The minted coupons bypassed the services, so the index reloads to list them before
+            // the campaign is reported finished
+            validCouponIndex.refresh();
+        } finally {
+            finish(campaignId, status, error);
+        }
+    }
+
+    private void insertBatch(Long campaignId, Object[] templateRow, int size) {
+        for (int attempt = 1; ; attempt++) {
+            List<Object[]> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Object[] row = templateRow.clone();
+                row[0] = codeGenerator.nextCode();
+                rows.add(row);
+            }
+            try {
+                batchTransaction.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_COUPON, rows, INSERT_COUPON_TYPES);
+                    jdbcTemplate.update("UPDATE coupon_campaigns SET minted = minted + ? WHERE id = ?", size, campaignId);
+                });
+                return;
+            } catch (DuplicateKeyException ex) {
+                if (attempt == MAX_BATCH_ATTEMPTS) {
+                    throw ex;
+                }
+                log.warn("Batch of campaign {} hit an existing code, retrying with fresh codes", campaignId);
+            }
+        }
+    }
+
+    private void finish(Long campaignId, CampaignStatus status, String error) {
+        jdbcTemplate.update("UPDATE coupon_campaigns SET status = ?, completed_at = ?, error = ? WHERE id = ?",
+                status.name(), LocalDateTime.now(), error, campaignId);
+    }
+
+    private static Object[] templateRow(Coupon template, Long campaignId) {
+        return new Object[]{
+                null,
+                template.getType().name(),
+                template.getValue(),
+                template.getMinOrderAmount(),
+                template.getMaxUses(),
+                template.getValidFrom(),
+                template.getValidUntil(),
+                template.getActive() == null || template.getActive(),
+                Boolean.TRUE.equals(template.getHighContention()),
+                template.getMaxDiscountAmount(),
+                new DiscountTiersConverter().convertToDatabaseColumn(template.getTiers()),
+                template.getCustomerId(),
+                campaignId
+        };
+    }
+
+    public enum CodeFormat {
+        CSV {
+            @Override
+            void write(String code, Writer writer) throws IOException {
+                writer.write(code);
+                writer.write('\n');
+            }
+        },
+        NDJSON {
+            @Override
+            void write(String code, Writer writer) throws IOException {
+                // Codes are upper-case letters and digits, so they never need escaping
+                writer.write("{\"code\":\"");
+                writer.write(code);
+                writer.write("\"}\n");
+            }
+        };
+
+        abstract void write(String code, Writer writer) throws IOException;
+    }
+}
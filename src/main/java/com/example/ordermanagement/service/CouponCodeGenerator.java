@@ -0,0 +1,175 @@
+package com.example.ordermanagement.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Mints coupon codes that are unique by construction, so that neither creating a coupon nor
+ * minting a campaign has to look up the {@code code} column first.
+ * <p>
+ * Each code is the image of a sequence number under a keyed permutation of the 36^8 possible
+ * eight-character codes: a four-round Feistel network over 42 bits, cycle-walked back into
+ * range, written in base 36. Distinct numbers always give distinct codes, and consecutive
+ * numbers give codes that look unrelated. Numbers are handed out from blocks of
+ * {@code coupon.code.block-size} reserved through the {@code coupon_code_seq} database
+ * sequence, so that restarts and other instances never reuse one and the database is asked
+ * only once per block.
+ * <p>
+ * {@code coupon.code.key} keys the permutation and must never change once codes have been
+ * minted. Sequence numbers are predictable, so minted codes are only as secret as the key:
+ * anyone who knows it can compute every code. It therefore has no default and must come from
+ * the environment ({@code COUPON_CODE_KEY}) or a secret store; startup fails without it. Codes
+ * chosen by hand share the same space; the unique constraint still rejects the rare one that
+ * a minted code already took.
+ */
+@Component
+@Slf4j
+public class CouponCodeGenerator {
+
+    private static final char[] CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final int CODE_LENGTH = 8;
+    private static final long CODE_SPACE = pow(CHARACTERS.length, CODE_LENGTH);
+
+    // 2^42 is the smallest even power of two above 36^8, so cycle walking takes 1.6 rounds on average
+    private static final int HALF_BITS = 21;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    private final LongSupplier blocks;
+    private final long blockSize;
+    private final long[] roundKeys = new long[ROUNDS];
+    // Held while the next block number is read from the database, so a ReentrantLock rather
+    // than a monitor, which would pin a virtual thread
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    private volatile Block block;
+
+    @Autowired
+    public CouponCodeGenerator(JdbcTemplate jdbcTemplate,
+                               @Value("${coupon.code.key:}") String key,
+                               @Value("${coupon.code.block-size:10000}") int blockSize) {
+        this(() -> jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR coupon_code_seq", Long.class),
+                parseKey(key), blockSize);
+    }
+
+    /**
+     * @param blocks supplies block numbers, each at most once
+     */
+    public CouponCodeGenerator(LongSupplier blocks, long key, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blocks = blocks;
+        this.blockSize = blockSize;
+        long state = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(state);
+        }
+    }
+
+    private static long parseKey(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("coupon.code.key is not set: provide a secret 64-bit key, "
+                    + "e.g. through the COUPON_CODE_KEY environment variable");
+        }
+        try {
+            return Long.parseLong(key.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException("coupon.code.key must be a 64-bit integer", ex);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException once every possible code has been handed out
+     */
+    public String nextCode() {
+        return encode(permute(nextSequence()));
+    }
+
+    private long nextSequence() {
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                long sequence = current.next().getAndIncrement();
+                if (sequence < current.end()) {
+                    return sequence;
+                }
+            }
+            refillLock.lock();
+            try {
+                if (block == current) {
+                    block = reserveBlock();
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    private Block reserveBlock() {
+        long number = blocks.getAsLong();
+        if (number < 0 || number >= CODE_SPACE / blockSize) {
+            throw new IllegalStateException("Coupon code space is exhausted");
+        }
+        log.debug("Reserved coupon code block {} of {} codes", number, blockSize);
+        return new Block(new AtomicLong(number * blockSize), (number + 1) * blockSize);
+    }
+
+    /**
+     * A bijection of [0, 36^8): the Feistel network permutes [0, 2^42), and values landing
+     * outside the code space are fed through it again until they land inside.
+     */
+    long permute(long sequence) {
+        long value = sequence;
+        do {
+            value = feistel(value);
+        } while (value >= CODE_SPACE);
+        return value;
+    }
+
+    private long feistel(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (long roundKey : roundKeys) {
+            long next = left ^ (mix(right ^ roundKey) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static String encode(long value) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = CHARACTERS[(int) (value % CHARACTERS.length)];
+            value /= CHARACTERS.length;
+        }
+        return new String(code);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long pow(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    private record Block(AtomicLong next, long end) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Switches coupons to inactive once they expire or are used up, so that {@code active = true}
+ * keeps meaning "can still be redeemed" and the active listing does not grow forever.
+ * <p>
+ * {@link ValidCouponIndex} queues coupons on the tick their {@code validUntil} passes and
+ * whenever a redemption through the services uses up the last use. They are deactivated in
+ * batches of {@code coupon.expiry.batch-size} per {@code UPDATE}. A sweep every
+ * {@code coupon.expiry.sweep-interval} catches the rest: coupons that expired while the
+ * application was down, high-contention coupons used up by a ledger flush, and batches that
+ * failed.
+ */
+@Component
+@Slf4j
+public class CouponDeactivator {
+
+    private final CouponRepository couponRepository;
+    private final ValidCouponIndex validCouponIndex;
+    private final CouponCache couponCache;
+    private final CouponMetrics couponMetrics;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    public CouponDeactivator(CouponRepository couponRepository,
+                             ValidCouponIndex validCouponIndex,
+                             CouponCache couponCache,
+                             CouponMetrics couponMetrics,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${coupon.expiry.batch-size:500}") int batchSize) {
+        this.couponRepository = couponRepository;
+        this.validCouponIndex = validCouponIndex;
+        this.couponCache = couponCache;
+        this.couponMetrics = couponMetrics;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Deactivates the coupons queued by the index, advancing its wheel first so that a coupon is
+     * switched off on the tick its window closes.
+     */
+    @Scheduled(fixedDelayString = "${coupon.valid-index.tick:PT1S}")
+    public void deactivateExpired() {
+        validCouponIndex.tick();
+        List<CouponView> expired = validCouponIndex.drainExpired();
+        if (!expired.isEmpty()) {
+            deactivate(expired);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.expiry.sweep-interval:PT10M}")
+    public void sweep() {
+        List<CouponView> expired = couponRepository.findAllExpiredActiveCoupons(LocalDateTime.now());
+        if (!expired.isEmpty()) {
+            log.info("Sweeping {} expired or used up coupons", expired.size());
+            deactivate(expired);
+        }
+    }
+
+    private void deactivate(List<CouponView> coupons) {
+        LocalDateTime now = LocalDateTime.now();
+        int deactivated = 0;
+        for (int from = 0; from < coupons.size(); from += batchSize) {
+            List<CouponView> batch = coupons.subList(from, Math.min(from + batchSize, coupons.size()));
+            List<Long> ids = batch.stream().map(CouponView::id).toList();
+            Integer updated = batchTransaction.execute(status -> couponRepository.deactivateIfExpired(ids, now));
+            batch.forEach(coupon -> couponCache.evict(coupon.code()));
+            deactivated += updated != null ? updated : 0;
+        }
+        couponMetrics.deactivated(deactivated);
+        log.debug("Deactivated {} of {} expired or used up coupons", deactivated, coupons.size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Coupon business metrics: {@code coupon.validation.failures} counted by {@code reason}, the
+ * discounts granted as the {@code coupon.discount.amount} summary by coupon {@code type}, and
+ * the expired or used up coupons switched off as {@code coupon.deactivated}.
+ */
+@Component
+public class CouponMetrics {
+
+    public enum Rejection {
+        NOT_FOUND, INACTIVE, NOT_STARTED, EXPIRED, EXHAUSTED, BELOW_MINIMUM, OTHER_CUSTOMER
+    }
+
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final Map<CouponType, DistributionSummary> discounts = new EnumMap<>(CouponType.class);
+    private final Counter deactivations;
+
+    public CouponMetrics(MeterRegistry meterRegistry) {
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("coupon.validation.failures")
+                    .description("Coupons refused at checkout")
+                    .tag("reason", rejection.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        for (CouponType type : CouponType.values()) {
+            discounts.put(type, DistributionSummary.builder("coupon.discount.amount")
+                    .description("Discounts granted by coupons")
+                    .baseUnit("currency")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        deactivations = Counter.builder("coupon.deactivated")
+                .description("Expired or used up coupons switched off automatically")
+                .register(meterRegistry);
+    }
+
+    public void rejected(Rejection rejection) {
+        rejections.get(rejection).increment();
+    }
+
+    public void discountApplied(CouponType type, BigDecimal discount) {
+        discounts.get(type).record(discount.doubleValue());
+    }
+
+    public void deactivated(int count) {
+        deactivations.increment(count);
+    }
+
+    /**
+     * Returns why {@link Coupon#isValid()} refuses the given coupon.
+     */
+    static Rejection invalidityOf(Coupon coupon) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!coupon.getActive()) {
+            return Rejection.INACTIVE;
+        }
+        if (coupon.getUsedCount() >= coupon.getMaxUses()) {
+            return Rejection.EXHAUSTED;
+        }
+        return now.isAfter(coupon.getValidFrom()) ? Rejection.EXPIRED : Rejection.NOT_STARTED;
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.repository.CouponRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out redemptions of high-contention coupons from in-memory budgets, so that a
+ * flash-sale code does not turn its {@code coupons} row into a write hotspot.
+ * <p>
+ * On first use the remaining {@code maxUses - usedCount} budget of a coupon is split across
+ * a fixed number of stripes. A redemption takes one permit from the stripe picked by the
+ * calling thread, moving on to the other stripes only when its own is empty. The number of
+ * permits taken is written back to {@code used_count} by a background flush, so the database
+ * lags behind by at most one flush interval but never over-counts. A permit taken inside a
+ * transaction that rolls back is given back to its budget.
+ * <p>
+ * Budgets are loaded, flushed and retired outside the map's per-bin locks: a coupon's slot
+ * holds a future that redemptions wait on while its budget is read or its predecessor is
+ * flushed, so database I/O for one coupon never blocks redemptions of another.
+ * <p>
+ * A budget whose flushes keep failing stops handing out permits after
+ * {@code coupon.high-contention.max-failed-flushes} failures in a row, until a flush succeeds,
+ * so that no more than a few flush intervals' worth of redemptions is only held in memory. A
+ * retired budget whose last flush failed is kept and flushed again, and new budgets of its
+ * coupon leave its redemptions out. Redemptions not yet written are published as the
+ * {@code coupon.redemptions.unflushed} gauge.
+ * <p>
+ * Budgets are held per JVM: run a single instance when high-contention coupons are in use.
+ */
+@Component
+@Slf4j
+public class CouponRedemptionLedger {
+
+    // Permits of neighbouring stripes are kept a cache line apart
+    private static final int PADDING = 8;
+
+    private final CouponRepository couponRepository;
+    private final TransactionTemplate flushTransaction;
+    private final int stripes;
+    private final int maxFailedFlushes;
+    // A slot completes with the coupon's budget, or with null once retired, which sends
+    // waiting redemptions back to look the slot up again
+    private final ConcurrentHashMap<Long, CompletableFuture<Allocation>> allocations = new ConcurrentHashMap<>();
+    // Retired budgets whose redemptions could not all be written yet
+    private final Queue<Allocation> backlog = new ConcurrentLinkedQueue<>();
+
+    public CouponRedemptionLedger(CouponRepository couponRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${coupon.high-contention.stripes:0}") int stripes,
+                                  @Value("${coupon.high-contention.max-failed-flushes:5}") int maxFailedFlushes) {
+        if (maxFailedFlushes <= 0) {
+            throw new IllegalArgumentException("Max failed flushes must be positive");
+        }
+        this.couponRepository = couponRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int requested = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.stripes = Integer.highestOneBit(Math.max(1, requested - 1)) << 1;
+        this.maxFailedFlushes = maxFailedFlushes;
+        Gauge.builder("coupon.redemptions.unflushed", this, CouponRedemptionLedger::unflushed)
+                .description("High-contention redemptions not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public enum Outcome {
+        ACQUIRED,
+        EXHAUSTED,
+        // The coupon's row is not in high-contention mode (any more): redeem it through its row
+        NOT_HIGH_CONTENTION,
+        // Too many flushes of the coupon's budget failed in a row
+        SUSPENDED
+    }
+
+    /**
+     * Takes one redemption permit for the given coupon, provided its row is in high-contention
+     * mode; callers decide that from a possibly stale copy of the coupon, so the mode is checked
+     * again whenever a budget is read. Within a transaction the permit is only kept if the
+     * transaction commits.
+     */
+    public Outcome acquire(Long couponId) {
+        while (true) {
+            CompletableFuture<Allocation> slot = allocations.get(couponId);
+            if (slot == null) {
+                CompletableFuture<Allocation> loading = new CompletableFuture<>();
+                slot = allocations.putIfAbsent(couponId, loading);
+                if (slot == null) {
+                    slot = loading;
+                    if (!load(couponId, loading)) {
+                        return Outcome.NOT_HIGH_CONTENTION;
+                    }
+                }
+            }
+            Allocation allocation = await(slot);
+            if (allocation == null) {
+                continue;
+            }
+            if (allocation.suspended) {
+                return Outcome.SUSPENDED;
+            }
+            if (allocation.tryAcquire()) {
+                releaseOnRollback(allocation);
+                return Outcome.ACQUIRED;
+            }
+            // Drained by a concurrent retire rather than used up: take from the next budget
+            if (!allocation.retired) {
+                return Outcome.EXHAUSTED;
+            }
+        }
+    }
+
+    /**
+     * Writes all outstanding redemptions to the database; a failure for one coupon does not
+     * hold back the others.
+     */
+    @Scheduled(fixedDelayString = "${coupon.high-contention.flush-interval:PT1S}")
+    public void flush() {
+        for (CompletableFuture<Allocation> slot : allocations.values()) {
+            Allocation allocation = loaded(slot);
+            if (allocation != null) {
+                flush(allocation);
+            }
+        }
+        backlog.removeIf(this::flushBacklogged);
+    }
+
+    /**
+     * Returns the number of redemptions handed out but not yet written to the database.
+     */
+    public long unflushed() {
+        long unflushed = 0;
+        for (CompletableFuture<Allocation> slot : allocations.values()) {
+            Allocation allocation = loaded(slot);
+            if (allocation != null) {
+                unflushed += allocation.unflushed();
+            }
+        }
+        for (Allocation allocation : backlog) {
+            unflushed += allocation.unflushed();
+        }
+        return unflushed;
+    }
+
+    /**
+     * Flushes and drops the budget of the given coupon, now and again after the current
+     * transaction commits, so that the next redemption re-reads {@code maxUses} and
+     * {@code usedCount}. Must be called whenever a coupon's budget may have changed.
+     */
+    public void retire(Long couponId) {
+        retireNow(couponId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    retireNow(couponId);
+                }
+            });
+        }
+    }
+
+    // The redemption is part of the caller's transaction, e.g. the order placed at checkout, so
+    // a rollback must not leave its permit used
+    private void releaseOnRollback(Allocation allocation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release(allocation);
+                    }
+                }
+            });
+        }
+    }
+
+    // Under the budget's lock, so that flushes and retires see the permit either taken or given
+    // back. A retired budget holds no permits: it stops counting the permit as consumed instead,
+    // and goes back to the backlog to write the correction if it was already flushed
+    private void release(Allocation allocation) {
+        allocation.lock.lock();
+        try {
+            if (!allocation.retired) {
+                allocation.returnPermit();
+            } else {
+                allocation.budget--;
+                if (!allocation.backlogged) {
+                    allocation.backlogged = true;
+                    backlog.add(allocation);
+                }
+            }
+        } finally {
+            allocation.lock.unlock();
+        }
+        log.debug("Released the permit of a rolled back redemption of coupon id: {}", allocation.couponId);
+    }
+
+    // Under the budget's lock, so that a permit given back in the meantime keeps it backlogged
+    private boolean flushBacklogged(Allocation allocation) {
+        allocation.lock.lock();
+        try {
+            if (flush(allocation) && allocation.unflushed() == 0) {
+                allocation.backlogged = false;
+                return true;
+            }
+            return false;
+        } finally {
+            allocation.lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void retireNow(Long couponId) {
+        if (!allocations.containsKey(couponId)) {
+            return;
+        }
+        // Redemptions wait on the marker, so a new budget cannot be read until this one is flushed
+        CompletableFuture<Allocation> retiring = new CompletableFuture<>();
+        CompletableFuture<Allocation> current = allocations.put(couponId, retiring);
+        try {
+            Allocation allocation = current != null ? current.exceptionally(ex -> null).join() : null;
+            if (allocation != null) {
+                allocation.lock.lock();
+                try {
+                    allocation.retire();
+                    if (!flush(allocation)) {
+                        allocation.backlogged = true;
+                        backlog.add(allocation);
+                    }
+                } finally {
+                    allocation.lock.unlock();
+                }
+                log.info("Retired high-contention budget for coupon id: {}", couponId);
+            }
+        } finally {
+            allocations.remove(couponId, retiring);
+            retiring.complete(null);
+        }
+    }
+
+    // Leaves no slot behind for a coupon that is not in high-contention mode; redemptions
+    // waiting on it look the coupon up again
+    private boolean load(Long couponId, CompletableFuture<Allocation> loading) {
+        try {
+            Allocation allocation = allocate(couponId);
+            if (allocation == null) {
+                allocations.remove(couponId, loading);
+            }
+            loading.complete(allocation);
+            return allocation != null;
+        } catch (RuntimeException ex) {
+            allocations.remove(couponId, loading);
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static Allocation loaded(CompletableFuture<Allocation> slot) {
+        return slot.isDone() && !slot.isCompletedExceptionally() ? slot.join() : null;
+    }
+
+    private static Allocation await(CompletableFuture<Allocation> slot) {
+        try {
+            return slot.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    private Allocation allocate(Long couponId) {
+        // Summed before the row is read: a backlog flushed in between is then left out twice,
+        // which can only undersell
+        long pending = 0;
+        for (Allocation retired : backlog) {
+            if (retired.couponId.equals(couponId)) {
+                pending += retired.unflushed();
+            }
+        }
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalStateException("Coupon not found with id: " + couponId));
+        if (!Boolean.TRUE.equals(coupon.getHighContention())) {
+            log.info("Coupon id: {} is not in high-contention mode, not allocating a budget", couponId);
+            return null;
+        }
+        long budget = Math.max(0, coupon.getMaxUses() - coupon.getUsedCount() - pending);
+        log.info("Allocated high-contention budget of {} across {} stripes for coupon id: {}", budget, stripes, couponId);
+        return new Allocation(couponId, budget, stripes);
+    }
+
+    // Holds a ReentrantLock rather than a monitor across the update, which would pin a virtual
+    // thread; for the same reason no database call runs inside a ConcurrentHashMap compute,
+    // which synchronizes on the map bin
+    private boolean flush(Allocation allocation) {
+        allocation.lock.lock();
+        try {
+            // Negative when permits already written were given back
+            int delta = (int) allocation.unflushed();
+            if (delta == 0) {
+                return true;
+            }
+            try {
+                flushTransaction.executeWithoutResult(status -> couponRepository.addUsedCount(allocation.couponId, delta));
+            } catch (RuntimeException ex) {
+                allocation.failedFlushes++;
+                if (allocation.failedFlushes >= maxFailedFlushes && !allocation.suspended) {
+                    allocation.suspended = true;
+                    log.error("Failed to flush {} redemptions for coupon id: {} {} times in a row, suspending its redemptions",
+                            delta, allocation.couponId, allocation.failedFlushes, ex);
+                } else {
+                    log.warn("Failed to flush {} redemptions for coupon id: {}", delta, allocation.couponId, ex);
+                }
+                return false;
+            }
+            allocation.flushed += delta;
+            allocation.failedFlushes = 0;
+            if (allocation.suspended) {
+                allocation.suspended = false;
+                log.info("Resumed redemptions of coupon id: {}", allocation.couponId);
+            }
+            log.debug("Flushed {} redemptions for coupon id: {}", delta, allocation.couponId);
+            return true;
+        } finally {
+            allocation.lock.unlock();
+        }
+    }
+
+    private static final class Allocation {
+
+        private final Long couponId;
+        private final int mask;
+        private final AtomicLongArray permits;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean retired;
+        private volatile boolean suspended;
+        // Guarded by lock, but read without it by the gauge
+        private volatile long budget;
+        private volatile long flushed;
+        // Guarded by lock
+        private int failedFlushes;
+        private boolean backlogged;
+
+        Allocation(Long couponId, long budget, int stripes) {
+            this.couponId = couponId;
+            this.budget = budget;
+            this.mask = stripes - 1;
+            this.permits = new AtomicLongArray(stripes * PADDING);
+            for (int i = 0; i < stripes; i++) {
+                permits.set(i * PADDING, budget / stripes + (i < budget % stripes ? 1 : 0));
+            }
+        }
+
+        boolean tryAcquire() {
+            int home = home();
+            for (int i = 0; i <= mask; i++) {
+                int slot = ((home + i) & mask) * PADDING;
+                long available = permits.get(slot);
+                while (available > 0) {
+                    if (permits.compareAndSet(slot, available, available - 1)) {
+                        return true;
+                    }
+                    available = permits.get(slot);
+                }
+            }
+            return false;
+        }
+
+        // Called with the lock held, so that flushes never see a stripe grow
+        void returnPermit() {
+            permits.incrementAndGet((home() & mask) * PADDING);
+        }
+
+        // Identity hash rather than the thread id, which is deprecated and, with a new virtual
+        // thread per request, not spread across stripes
+        private int home() {
+            int hash = System.identityHashCode(Thread.currentThread());
+            return hash ^ (hash >>> 16);
+        }
+
+        // Outside the lock stripes only ever shrink, so a racy sum taken by a flush can
+        // under-count consumption but never over-count it
+        long consumed() {
+            long remaining = 0;
+            for (int i = 0; i <= mask; i++) {
+                remaining += permits.get(i * PADDING);
+            }
+            return budget - remaining;
+        }
+
+        long unflushed() {
+            return consumed() - flushed;
+        }
+
+        // Unused permits are given back, so they are not counted as consumed. Marked retired
+        // first, so that a redemption that finds the stripes drained knows to retry
+        void retire() {
+            retired = true;
+            for (int i = 0; i <= mask; i++) {
+                budget -= permits.getAndSet(i * PADDING, 0);
+            }
+        }
+    }
+}
@@ -1,34 +1,63 @@
 package com.example.ordermanagement.service;
 
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.dto.CursorPage;
+import com.example.ordermanagement.dto.DiscountQuote;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
 import com.example.ordermanagement.entity.Coupon;
-import com.example.ordermanagement.entity.CouponType;
 import com.example.ordermanagement.exception.ResourceNotFoundException;
 import com.example.ordermanagement.repository.CouponRepository;
+import com.example.ordermanagement.service.CouponMetrics.Rejection;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("coupon.service")
 @Slf4j
 public class CouponService {
 
     private final CouponRepository couponRepository;
+    private final CouponCache couponCache;
+    private final CouponRedemptionLedger redemptionLedger;
+    private final CouponMetrics couponMetrics;
+    private final DiscountCalculator discountCalculator;
+    private final CouponValidator couponValidator;
+    private final ValidCouponIndex validCouponIndex;
+    private final CouponCodeGenerator codeGenerator;
+    private final OptimisticLockRetry optimisticLockRetry;
 
-    public List<Coupon> getAllCoupons() {
+    @Transactional(readOnly = true)
+    public List<CouponView> getAllCoupons() {
         log.info("Fetching all coupons");
-        List<Coupon> coupons = couponRepository.findAll();
+        List<CouponView> coupons = couponRepository.findViewsByOrderByIdAsc();
         log.debug("Found {} coupons", coupons.size());
         return coupons;
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<CouponView> getCoupons(Long cursor, int limit) {
+        log.info("Fetching coupons after cursor: {} (limit {})", cursor, limit);
+        List<CouponView> rows = couponRepository.findViewsByIdGreaterThanOrderByIdAsc(
+                CursorPage.startOf(cursor), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, CouponView::id);
+    }
+
+    @Transactional(readOnly = true)
     public Coupon getCouponById(Long id) {
         log.info("Fetching coupon with id: {}", id);
         return couponRepository.findById(id)
@@ -38,9 +67,10 @@ public class CouponService {
                 });
     }
 
+    @Transactional(readOnly = true)
     public Coupon getCouponByCode(String code) {
         log.info("Fetching coupon with code: {}", code);
-        return couponRepository.findByCode(code)
+        return couponCache.findByCode(code)
                 .orElseThrow(() -> {
                     log.error("Coupon not found with code: {}", code);
                     return new ResourceNotFoundException("Coupon not found with code: " + code);
@@ -49,126 +79,228 @@ public class CouponService {
 
     public Coupon createCoupon(Coupon coupon) {
         log.info("Creating new coupon of type: {}", coupon.getType());
-        validateCoupon(coupon);
+        couponValidator.validate(coupon);
+        if (coupon.getCode() == null || coupon.getCode().isEmpty()) {
+            coupon.setCode(codeGenerator.nextCode());
+        }
         Coupon savedCoupon = couponRepository.save(coupon);
+        couponCache.put(savedCoupon);
+        validCouponIndex.update(savedCoupon);
         log.info("Coupon created successfully with id: {} and code: {}", savedCoupon.getId(), savedCoupon.getCode());
         return savedCoupon;
     }
 
+    /**
+     * Replaces the settings of the coupon; retried through {@link OptimisticLockRetry} if the
+     * coupon is edited or deactivated concurrently.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Coupon updateCoupon(Long id, Coupon couponDetails) {
         log.info("Updating coupon with id: {}", id);
-        Coupon coupon = getCouponById(id);
-        validateCoupon(couponDetails);
+        Coupon updatedCoupon = optimisticLockRetry.execute("coupon.update", () -> {
+            redemptionLedger.retire(id);
+            Coupon coupon = getCouponById(id);
+            couponValidator.validate(couponDetails);
 
-        coupon.setType(couponDetails.getType());
-        coupon.setValue(couponDetails.getValue());
-        coupon.setMinOrderAmount(couponDetails.getMinOrderAmount());
-        coupon.setMaxUses(couponDetails.getMaxUses());
-        coupon.setValidFrom(couponDetails.getValidFrom());
-        coupon.setValidUntil(couponDetails.getValidUntil());
-        coupon.setActive(couponDetails.getActive());
+            coupon.setType(couponDetails.getType());
+            coupon.setValue(couponDetails.getValue());
+            coupon.setMinOrderAmount(couponDetails.getMinOrderAmount());
+            coupon.setMaxDiscountAmount(couponDetails.getMaxDiscountAmount());
+            coupon.setTiers(couponDetails.getTiers());
+            coupon.setCustomerId(couponDetails.getCustomerId());
+            coupon.setMaxUses(couponDetails.getMaxUses());
+            coupon.setValidFrom(couponDetails.getValidFrom());
+            coupon.setValidUntil(couponDetails.getValidUntil());
+            coupon.setActive(couponDetails.getActive());
+            coupon.setHighContention(couponDetails.getHighContention());
 
-        Coupon updatedCoupon = couponRepository.save(coupon);
+            Coupon savedCoupon = couponRepository.save(coupon);
+            // Both apply the change only once this attempt commits
+            couponCache.put(savedCoupon);
+            validCouponIndex.update(savedCoupon);
+            return savedCoupon;
+        });
         log.info("Coupon updated successfully with id: {}", updatedCoupon.getId());
         return updatedCoupon;
     }
 
     public void deleteCoupon(Long id) {
         log.info("Deleting coupon with id: {}", id);
+        redemptionLedger.retire(id);
         Coupon coupon = getCouponById(id);
         couponRepository.delete(coupon);
+        couponCache.evict(coupon.getCode());
+        validCouponIndex.remove(id);
         log.info("Coupon deleted successfully with id: {}", id);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Coupon deactivateCoupon(Long id) {
         log.info("Deactivating coupon with id: {}", id);
-        Coupon coupon = getCouponById(id);
-        coupon.setActive(false);
-        Coupon deactivatedCoupon = couponRepository.save(coupon);
+        Coupon deactivatedCoupon = optimisticLockRetry.execute("coupon.deactivate", () -> {
+            Coupon coupon = getCouponById(id);
+            coupon.setActive(false);
+            Coupon savedCoupon = couponRepository.save(coupon);
+            couponCache.put(savedCoupon);
+            validCouponIndex.update(savedCoupon);
+            return savedCoupon;
+        });
         log.info("Coupon deactivated successfully with id: {}", id);
         return deactivatedCoupon;
     }
 
-    public List<Coupon> getActiveCoupons() {
+    @Transactional(readOnly = true)
+    public List<CouponView> getActiveCoupons() {
         log.info("Fetching all active coupons");
-        List<Coupon> coupons = couponRepository.findByActive(true);
+        List<CouponView> coupons = couponRepository.findViewsByActive(true);
         log.debug("Found {} active coupons", coupons.size());
         return coupons;
     }
 
-    public List<Coupon> getValidCoupons() {
+    /**
+     * Returns the currently valid coupons ordered by {@code validUntil}, served from
+     * {@link ValidCouponIndex} without a transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CouponView> getValidCoupons() {
         log.info("Fetching all valid coupons");
-        List<Coupon> coupons = couponRepository.findAllValidCoupons(LocalDateTime.now());
+        List<CouponView> coupons = validCouponIndex.validCoupons();
         log.debug("Found {} valid coupons", coupons.size());
         return coupons;
     }
 
     public Coupon incrementUsedCount(Long id) {
         log.info("Incrementing used count for coupon id: {}", id);
-        Coupon coupon = getCouponById(id);
-        if (coupon.getUsedCount() >= coupon.getMaxUses()) {
+        if (couponRepository.incrementUsedCountIfAvailable(id) == 0) {
+            Coupon coupon = getCouponById(id);
+            if (Boolean.TRUE.equals(coupon.getHighContention()) && redeemedFromLedger(coupon)) {
+                return coupon;
+            }
             log.warn("Coupon id: {} has reached maximum uses ({}/{})", id, coupon.getUsedCount(), coupon.getMaxUses());
+            couponMetrics.rejected(Rejection.EXHAUSTED);
             throw new IllegalStateException("Coupon has reached maximum uses");
         }
-        coupon.setUsedCount(coupon.getUsedCount() + 1);
-        Coupon updatedCoupon = couponRepository.save(coupon);
+        Coupon updatedCoupon = getCouponById(id);
+        couponCache.put(updatedCoupon);
+        validCouponIndex.redeemed(updatedCoupon);
         log.info("Coupon usage incremented to {}/{} for coupon id: {}", updatedCoupon.getUsedCount(), updatedCoupon.getMaxUses(), id);
         return updatedCoupon;
     }
 
     /**
-     * Calculates the discount amount for a given coupon and order amount.
-     * - FIXED: Validates minOrderAmount, returns coupon value as discount (capped at order amount)
-     * - PERCENTAGE: No minOrderAmount validation, returns percentage of order amount as discount
+     * Redeems one use of the coupon with the given code. High-contention coupons are redeemed
+     * from memory without writing to their row; their returned {@code usedCount} may lag
+     * behind by up to one ledger flush.
+     * <p>
+     * The path is picked from the cached coupon, whose mode may be stale: each path confirms the
+     * mode from the row and hands over to the other one when they disagree.
+     */
+    public Coupon incrementUsedCountByCode(String code) {
+        log.info("Incrementing used count for coupon code: {}", code);
+        Coupon cachedCoupon = getCouponByCode(code);
+        if (Boolean.TRUE.equals(cachedCoupon.getHighContention()) && redeemedFromLedger(cachedCoupon)) {
+            return cachedCoupon;
+        }
+
+        boolean redeemed = couponRepository.incrementUsedCountIfAvailableByCode(code) > 0;
+        Coupon coupon = couponRepository.findByCode(code)
+                .orElseThrow(() -> {
+                    log.error("Coupon not found with code: {}", code);
+                    return new ResourceNotFoundException("Coupon not found with code: " + code);
+                });
+        if (!redeemed) {
+            // Switched to high-contention mode since it was cached
+            if (Boolean.TRUE.equals(coupon.getHighContention()) && redeemedFromLedger(coupon)) {
+                return coupon;
+            }
+            log.warn("Coupon code: {} has reached maximum uses ({}/{})", code, coupon.getUsedCount(), coupon.getMaxUses());
+            couponMetrics.rejected(Rejection.EXHAUSTED);
+            throw new IllegalStateException("Coupon has reached maximum uses");
+        }
+        couponCache.put(coupon);
+        validCouponIndex.redeemed(coupon);
+        log.info("Coupon usage incremented to {}/{} for coupon code: {}", coupon.getUsedCount(), coupon.getMaxUses(), code);
+        return coupon;
+    }
+
+    /**
+     * Redeems the coupon from its in-memory budget.
+     *
+     * @return false if its row is not in high-contention mode, so it must be redeemed through the row
+     * @throws IllegalStateException if the budget is exhausted, or suspended after failed flushes
+     */
+    private boolean redeemedFromLedger(Coupon coupon) {
+        CouponRedemptionLedger.Outcome outcome = redemptionLedger.acquire(coupon.getId());
+        if (outcome == CouponRedemptionLedger.Outcome.EXHAUSTED) {
+            log.warn("High-contention coupon id: {} has reached maximum uses ({})", coupon.getId(), coupon.getMaxUses());
+            couponMetrics.rejected(Rejection.EXHAUSTED);
+            throw new IllegalStateException("Coupon has reached maximum uses");
+        }
+        if (outcome == CouponRedemptionLedger.Outcome.SUSPENDED) {
+            log.warn("Redemptions of high-contention coupon id: {} are suspended until its usage can be saved", coupon.getId());
+            throw new IllegalStateException("Coupon redemptions are suspended until its usage can be saved");
+        }
+        if (outcome == CouponRedemptionLedger.Outcome.ACQUIRED) {
+            log.debug("Redeemed high-contention coupon id: {} from in-memory budget", coupon.getId());
+        }
+        return outcome == CouponRedemptionLedger.Outcome.ACQUIRED;
+    }
+
+    /**
+     * Calculates the discount amount for a given coupon and order amount, following the rules
+     * of {@link DiscountCalculator}.
      *
      * @param code        the coupon code
      * @param orderAmount the original order amount
      * @return the discount amount to subtract from the order
      */
+    @Transactional(readOnly = true)
     public BigDecimal calculateDiscount(String code, BigDecimal orderAmount) {
-        log.info("Calculating discount for coupon code: {} with order amount: {}", code, orderAmount);
-        Coupon coupon = getCouponByCode(code);
-
-        if (!coupon.isValid()) {
-            log.warn("Coupon code: {} is not valid", code);
-            throw new IllegalStateException("Coupon is not valid");
-        }
-
-        BigDecimal discount;
-        if (coupon.getType() == CouponType.FIXED) {
-            // Validate minOrderAmount for FIXED type coupons
-            if (orderAmount.compareTo(coupon.getMinOrderAmount()) < 0) {
-                log.warn("Order amount {} does not meet minimum requirement {} for coupon code: {}",
-                        orderAmount, coupon.getMinOrderAmount(), code);
-                throw new IllegalStateException("Order amount does not meet minimum requirement for this coupon");
-            }
-            // Return discount (capped so final amount doesn't go negative)
-            discount = coupon.getValue();
-            if (discount.compareTo(orderAmount) > 0) {
-                discount = orderAmount;
-                log.debug("FIXED discount capped to order amount: {}", discount);
-            }
-        } else {
-            // PERCENTAGE type - no minOrderAmount validation
-            discount = orderAmount.multiply(coupon.getValue())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        }
+        return calculateDiscount(code, orderAmount, null);
+    }
 
+    /**
+     * Calculates the discount amount for a given coupon and order amount on behalf of a
+     * customer, which coupons restricted to one customer require.
+     *
+     * @param customerId the ordering customer, or null if unknown
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal calculateDiscount(String code, BigDecimal orderAmount, Long customerId) {
+        log.info("Calculating discount for coupon code: {} with order amount: {}", code, orderAmount);
+        Coupon coupon = couponCache.findByCode(code)
+                .orElseThrow(() -> {
+                    log.error("Coupon not found with code: {}", code);
+                    couponMetrics.rejected(Rejection.NOT_FOUND);
+                    return new ResourceNotFoundException("Coupon not found with code: " + code);
+                });
+        BigDecimal discount = discountCalculator.apply(coupon, orderAmount, customerId);
         log.info("Calculated discount: {} for coupon code: {} (type: {})", discount, code, coupon.getType());
         return discount;
     }
 
-    private void validateCoupon(Coupon coupon) {
-        if (coupon.getType() == CouponType.PERCENTAGE
-                && coupon.getValue().compareTo(BigDecimal.valueOf(50)) > 0) {
-            log.error("Validation failed: Percentage discount {} exceeds maximum 50%", coupon.getValue());
-            throw new IllegalArgumentException("Percentage discount cannot exceed 50%");
-        }
+    /**
+     * Quotes discounts for many (code, order amount) pairs at once. All distinct codes are
+     * resolved together, and each pair is priced independently: an unknown or inapplicable
+     * coupon only fails its own item.
+     *
+     * @return one quote per request item, in request order
+     */
+    @Transactional(readOnly = true)
+    public List<DiscountQuote> quoteDiscounts(List<DiscountQuoteRequest> requests) {
+        log.info("Quoting discounts for {} items", requests.size());
+        Set<String> codes = requests.stream()
+                .filter(Objects::nonNull)
+                .map(DiscountQuoteRequest::code)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Coupon> coupons = couponCache.findAllByCodes(codes);
 
-        if (coupon.getValidUntil().isBefore(coupon.getValidFrom())) {
-            log.error("Validation failed: validUntil {} is before validFrom {}", coupon.getValidUntil(), coupon.getValidFrom());
-            throw new IllegalArgumentException("Valid until date must be after valid from date");
+        List<DiscountQuote> quotes = new ArrayList<>(requests.size());
+        for (DiscountQuoteRequest request : requests) {
+            quotes.add(discountCalculator.quote(request, coupons));
         }
-        log.debug("Coupon validation passed");
+        log.debug("Quoted {} items against {} distinct coupons", quotes.size(), coupons.size());
+        return quotes;
     }
 }
@@ -0,0 +1,36 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.Coupon;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the rules a created or updated coupon must meet beyond its bean validation
+ * constraints, shared by the servlet and the reactive coupon endpoints and by campaign
+ * templates. Free of I/O, so it is safe to call from a non-blocking thread.
+ */
+@Component
+@Slf4j
+public class CouponValidator {
+
+    /**
+     * The settings of the coupon's discount type are checked by compiling its
+     * {@link Coupon#discountRule() discount rule}.
+     *
+     * @throws IllegalArgumentException if the coupon breaks one of the rules
+     */
+    public void validate(Coupon coupon) {
+        try {
+            coupon.discountRule();
+        } catch (IllegalArgumentException ex) {
+            log.error("Validation failed for {} coupon: {}", coupon.getType(), ex.getMessage());
+            throw ex;
+        }
+
+        if (coupon.getValidUntil().isBefore(coupon.getValidFrom())) {
+            log.error("Validation failed: validUntil {} is before validFrom {}", coupon.getValidUntil(), coupon.getValidFrom());
+            throw new IllegalArgumentException("Valid until date must be after valid from date");
+        }
+        log.debug("Coupon validation passed");
+    }
+}
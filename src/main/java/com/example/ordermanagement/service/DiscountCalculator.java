@@ -0,0 +1,118 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.discount.Cents;
+import com.example.ordermanagement.discount.DiscountRule;
+import com.example.ordermanagement.dto.DiscountQuote;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.service.CouponMetrics.Rejection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Applies a coupon's compiled {@link DiscountRule} at checkout, shared by the servlet and the
+ * reactive coupon endpoints. Works on an already loaded coupon and never touches the database,
+ * so it is safe to call from a non-blocking thread.
+ * <p>
+ * Order amounts are converted to {@link Cents} once and discounts come back with a scale of 2.
+ * Amounts with a fraction of a cent are priced unrounded, as {@link BigDecimal}, so that they
+ * get the same discount as before the rules were compiled; the one discount that keeps their
+ * scale is a fixed discount capped at such an amount. The rules of each coupon type are
+ * described on {@link com.example.ordermanagement.entity.CouponType}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DiscountCalculator {
+
+    private final CouponMetrics couponMetrics;
+
+    /**
+     * @return the discount amount to subtract from the order
+     * @throws IllegalStateException if the coupon is not valid or cannot be applied to the amount
+     */
+    public BigDecimal apply(Coupon coupon, BigDecimal orderAmount) {
+        return apply(coupon, orderAmount, null);
+    }
+
+    /**
+     * @param customerId the ordering customer, or null if unknown
+     * @return the discount amount to subtract from the order
+     * @throws IllegalStateException if the coupon is not valid or cannot be applied to the order
+     */
+    public BigDecimal apply(Coupon coupon, BigDecimal orderAmount, Long customerId) {
+        String code = coupon.getCode();
+        if (!coupon.isValid()) {
+            log.warn("Coupon code: {} is not valid", code);
+            couponMetrics.rejected(CouponMetrics.invalidityOf(coupon));
+            throw new IllegalStateException("Coupon is not valid");
+        }
+
+        DiscountRule rule = coupon.discountRule();
+        long orderCents = toOrderCents(orderAmount);
+        long discountCents = rule.discountCents(orderCents, customerId);
+        if (discountCents == DiscountRule.BELOW_MINIMUM) {
+            log.warn("Order amount {} does not meet minimum requirement {} for coupon code: {}",
+                    orderAmount, coupon.getMinOrderAmount(), code);
+            couponMetrics.rejected(Rejection.BELOW_MINIMUM);
+            throw new IllegalStateException("Order amount does not meet minimum requirement for this coupon");
+        }
+        if (discountCents == DiscountRule.OTHER_CUSTOMER) {
+            log.warn("Coupon code: {} is restricted to another customer than {}", code, customerId);
+            couponMetrics.rejected(Rejection.OTHER_CUSTOMER);
+            throw new IllegalStateException("Coupon is not available for this customer");
+        }
+        BigDecimal discount = hasFractionOfCent(orderAmount)
+                ? rule.subCentDiscount(orderAmount, orderCents)
+                : Cents.toBigDecimal(discountCents);
+        couponMetrics.discountApplied(coupon.getType(), discount);
+        return discount;
+    }
+
+    private static long toOrderCents(BigDecimal orderAmount) {
+        if (orderAmount == null) {
+            throw new IllegalStateException("Order amount is required");
+        }
+        long orderCents = Cents.of(orderAmount);
+        if (orderCents == Cents.NOT_CENTS && orderAmount.scale() > 2) {
+            // Rounded down, minimums compare as on the full amount; see DiscountRule#subCentDiscount
+            orderCents = Cents.of(orderAmount.setScale(2, RoundingMode.FLOOR));
+        }
+        if (orderCents < 0 || orderCents > DiscountRule.MAX_ORDER_CENTS) {
+            throw new IllegalStateException("Order amount is out of range");
+        }
+        return orderCents;
+    }
+
+    // Of an amount already accepted by toOrderCents, so not one that is too large
+    private static boolean hasFractionOfCent(BigDecimal orderAmount) {
+        return orderAmount.scale() > 2 && Cents.of(orderAmount) == Cents.NOT_CENTS;
+    }
+
+    /**
+     * Prices one item of a batch quotation against the coupons resolved for the batch; an
+     * unknown or inapplicable coupon is reported in the quote instead of thrown.
+     */
+    public DiscountQuote quote(DiscountQuoteRequest request, Map<String, Coupon> coupons) {
+        if (request == null || request.code() == null || request.orderAmount() == null) {
+            return DiscountQuote.rejected(request != null ? request.code() : null,
+                    request != null ? request.orderAmount() : null, "Coupon code and order amount are required");
+        }
+        Coupon coupon = coupons.get(request.code());
+        if (coupon == null) {
+            couponMetrics.rejected(Rejection.NOT_FOUND);
+            return DiscountQuote.rejected(request.code(), request.orderAmount(),
+                    "Coupon not found with code: " + request.code());
+        }
+        try {
+            return DiscountQuote.applied(request.code(), request.orderAmount(), apply(coupon, request.orderAmount(), request.customerId()));
+        } catch (IllegalStateException ex) {
+            return DiscountQuote.rejected(request.code(), request.orderAmount(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.IdempotencyRecord;
+import com.example.ordermanagement.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of requests sent with an {@code Idempotency-Key}, so that a retry is answered
+ * without running the request again.
+ * <p>
+ * Responses are held in a Caffeine cache bounded by {@code idempotency.store.maximum-size} of
+ * response bodies and expiring {@code idempotency.store.ttl} after being stored; its meters
+ * are published with {@code cache=idempotency}. Markers of requests still running are kept
+ * apart from it, in a map holding one entry per request in flight, so that neither eviction
+ * nor expiry can hand their key to a second request. With {@code idempotency.store.persistent=true}
+ * they are also written to the {@code idempotency_records} table, read back on a cache miss
+ * and purged once expired, so that replays survive a restart.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final String CACHE_NAME = "idempotency";
+
+    // Rough footprint of an entry besides its body
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final Duration ttl;
+    private final boolean persistent;
+    private final Cache<String, StoredResponse> cache;
+    // Emptied by complete and release, which the owner of a key always calls
+    private final ConcurrentHashMap<String, StoredResponse> running = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${idempotency.store.maximum-size:64MB}") DataSize maximumSize,
+                            @Value("${idempotency.store.ttl:PT24H}") Duration ttl,
+                            @Value("${idempotency.store.persistent:false}") boolean persistent) {
+        this.recordRepository = recordRepository;
+        this.ttl = ttl;
+        this.persistent = persistent;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, StoredResponse response) -> ENTRY_OVERHEAD + key.length() + response.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * A response stored under a key, or the marker of a request still running under it.
+     *
+     * @param fingerprint identifies the request that owns the key
+     * @param status      the response status, 0 while the request is running
+     */
+    public record StoredResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+
+        static StoredResponse running(String fingerprint) {
+            return new StoredResponse(fingerprint, 0, null, null, new byte[0]);
+        }
+
+        public boolean isRunning() {
+            return status == 0;
+        }
+    }
+
+    /**
+     * Claims the key for a request with the given fingerprint, unless another request already
+     * did.
+     *
+     * @return null if the caller now owns the key, and must {@link #complete complete} or
+     * {@link #release release} it; otherwise the response or running marker stored under it
+     */
+    public StoredResponse claim(String key, String fingerprint) {
+        StoredResponse marker = StoredResponse.running(fingerprint);
+        StoredResponse existing = running.putIfAbsent(key, marker);
+        if (existing != null) {
+            return existing;
+        }
+        // Checked after claiming: complete stores the response before dropping its marker
+        existing = cache.getIfPresent(key);
+        if (existing == null && persistent) {
+            existing = findPersisted(key);
+            if (existing != null) {
+                cache.put(key, existing);
+            }
+        }
+        if (existing != null) {
+            running.remove(key, marker);
+        }
+        return existing;
+    }
+
+    /**
+     * Stores the response of the request owning the key.
+     */
+    public void complete(String key, StoredResponse response) {
+        cache.put(key, response);
+        running.remove(key);
+        if (persistent) {
+            persist(key, response);
+        }
+    }
+
+    /**
+     * Gives up the key without storing a response, so that a retry runs the request again.
+     */
+    public void release(String key) {
+        running.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.store.purge-interval:PT10M}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        int purged = recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        log.debug("Purged {} expired idempotency records", purged);
+    }
+
+    private StoredResponse findPersisted(String key) {
+        try {
+            return recordRepository.findById(key)
+                    .filter(record -> record.getCreatedAt().isAfter(LocalDateTime.now().minus(ttl)))
+                    .map(record -> new StoredResponse(record.getFingerprint(), record.getStatus(),
+                            record.getContentType(), record.getLocation(), record.getBody()))
+                    .orElse(null);
+        } catch (DataAccessException ex) {
+            log.warn("Failed to read idempotency record for key: {}", key, ex);
+            return null;
+        }
+    }
+
+    private void persist(String key, StoredResponse response) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setFingerprint(response.fingerprint());
+        record.setStatus(response.status());
+        record.setContentType(response.contentType());
+        record.setLocation(response.location());
+        record.setBody(response.body());
+        record.setCreatedAt(LocalDateTime.now());
+        try {
+            recordRepository.save(record);
+        } catch (DataAccessException ex) {
+            // The cached response still answers retries reaching this instance before it expires
+            log.warn("Failed to persist idempotency record for key: {}", key, ex);
+        }
+    }
+}
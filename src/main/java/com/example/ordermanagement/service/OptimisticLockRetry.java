@@ -0,0 +1,99 @@
+package com.example.ordermanagement.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-modify-write operations on versioned entities, each attempt in a transaction of
+ * its own. An attempt that loses an optimistic locking race is rolled back and the operation
+ * runs again on fresh state, after a random backoff of up to {@code optimistic-lock.backoff}
+ * doubling with every attempt, at most {@code optimistic-lock.max-attempts} times in all.
+ * <p>
+ * Attempts are counted as {@code optimistic.lock.attempts} tagged with {@code operation} and
+ * {@code outcome} ({@code committed} or {@code conflict}), so that the conflict rate of each
+ * operation can be followed; operations that run out of attempts are counted as
+ * {@code optimistic.lock.exhausted}.
+ */
+@Component
+@Slf4j
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${optimistic-lock.max-attempts:4}") int maxAttempts,
+                               @Value("${optimistic-lock.backoff:PT0.005S}") Duration backoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    /**
+     * @param operation names the operation in logs and meters, e.g. {@code order.update}
+     * @param action    reads, modifies and saves the entities; runs once per attempt
+     * @throws OptimisticLockingFailureException if the last attempt lost its race too
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> action.get());
+                attempts(operation, "committed").increment();
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                attempts(operation, "conflict").increment();
+                if (attempt == maxAttempts) {
+                    log.warn("Operation {} lost {} optimistic locking races in a row, giving up", operation, attempt);
+                    Counter.builder("optimistic.lock.exhausted")
+                            .description("Operations that lost every optimistic locking race")
+                            .tag("operation", operation)
+                            .register(meterRegistry)
+                            .increment();
+                    throw ex;
+                }
+                log.debug("Operation {} lost optimistic locking race {} of {}, retrying", operation, attempt, maxAttempts);
+                pause(attempt, ex);
+            }
+        }
+    }
+
+    private Counter attempts(String operation, String outcome) {
+        return Counter.builder("optimistic.lock.attempts")
+                .description("Attempts of read-modify-write operations, by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Full jitter, so that the writers that collided do not collide again
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long bound = backoff.toNanos() << Math.min(attempt - 1, 20);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.OrderExportFilter;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders as newline-delimited JSON straight from a database cursor, detaching each
+ * order once written so memory use stays flat regardless of how many orders match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderExportFilter filter, OutputStream out) throws IOException {
+        log.info("Exporting orders matching {}", filter);
+        ObjectWriter writer = objectMapper.writerFor(Order.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<Order> orders = orderRepository.streamForExport(
+                     filter.status(), filter.customerId(), filter.createdFrom(), filter.createdTo());
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                writer.writeValue(generator, order);
+                entityManager.detach(order);
+                count++;
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        log.info("Exported {} orders", count);
+        return count;
+    }
+}
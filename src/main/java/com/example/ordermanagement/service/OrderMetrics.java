@@ -0,0 +1,43 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts order status transitions as {@code order.status.transitions} tagged with {@code from}
+ * and {@code to}; newly created orders are counted with {@code from=NONE}.
+ */
+@Component
+public class OrderMetrics {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    // Indexed by [from.ordinal() + 1][to.ordinal()]; row 0 holds the transitions from NONE
+    private final Counter[][] transitions = new Counter[STATUSES.length + 1][STATUSES.length];
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        for (int from = 0; from <= STATUSES.length; from++) {
+            for (OrderStatus to : STATUSES) {
+                transitions[from][to.ordinal()] = Counter.builder("order.status.transitions")
+                        .description("Order status changes")
+                        .tag("from", from == 0 ? "NONE" : STATUSES[from - 1].name())
+                        .tag("to", to.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public void created() {
+        created(1);
+    }
+
+    public void created(long count) {
+        transitions[0][OrderStatus.CREATED.ordinal()].increment(count);
+    }
+
+    public void statusChanged(OrderStatus from, OrderStatus to) {
+        transitions[from != null ? from.ordinal() + 1 : 0][to.ordinal()].increment();
+    }
+}
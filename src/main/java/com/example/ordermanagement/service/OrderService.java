@@ -1,12 +1,17 @@
 package com.example.ordermanagement.service;
 
+import com.example.ordermanagement.dto.CursorPage;
+import com.example.ordermanagement.dto.OrderSummary;
 import com.example.ordermanagement.entity.Order;
 import com.example.ordermanagement.entity.OrderStatus;
 import com.example.ordermanagement.exception.ResourceNotFoundException;
 import com.example.ordermanagement.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -14,18 +19,30 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("order.service")
 @Slf4j
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderMetrics orderMetrics;
+    private final OptimisticLockRetry optimisticLockRetry;
 
-    public List<Order> getAllOrders() {
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getAllOrders() {
         log.info("Fetching all orders");
-        List<Order> orders = orderRepository.findAll();
+        List<OrderSummary> orders = orderRepository.findSummariesByOrderByIdAsc();
         log.debug("Found {} orders", orders.size());
         return orders;
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> getOrders(Long cursor, int limit) {
+        log.info("Fetching orders after cursor: {} (limit {})", cursor, limit);
+        List<OrderSummary> rows = orderRepository.findSummariesByIdGreaterThanOrderByIdAsc(CursorPage.startOf(cursor), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, OrderSummary::id);
+    }
+
+    @Transactional(readOnly = true)
     public Order getOrderById(Long id) {
         log.info("Fetching order with id: {}", id);
         return orderRepository.findById(id)
@@ -39,30 +56,48 @@ public class OrderService {
         log.info("Creating new order for customer: {}", order.getCustomerId());
         order.setStatus(OrderStatus.CREATED);
         Order savedOrder = orderRepository.save(order);
+        orderMetrics.created();
         log.info("Order created successfully with id: {}", savedOrder.getId());
         return savedOrder;
     }
 
+    /**
+     * Replaces the editable fields of the order; retried through {@link OptimisticLockRetry} if
+     * the order changes concurrently, so the update never undoes another one.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order updateOrder(Long id, Order orderDetails) {
         log.info("Updating order with id: {}", id);
-        Order order = getOrderById(id);
-        order.setName(orderDetails.getName());
-        order.setOriginalAmount(orderDetails.getOriginalAmount());
-        order.setFinalAmount(orderDetails.getFinalAmount());
-        order.setCustomerId(orderDetails.getCustomerId());
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder = optimisticLockRetry.execute("order.update", () -> {
+            Order order = getOrderById(id);
+            order.setName(orderDetails.getName());
+            order.setOriginalAmount(orderDetails.getOriginalAmount());
+            order.setFinalAmount(orderDetails.getFinalAmount());
+            order.setCustomerId(orderDetails.getCustomerId());
+            return orderRepository.save(order);
+        });
         log.info("Order updated successfully with id: {}", updatedOrder.getId());
         return updatedOrder;
     }
 
+    /**
+     * Moves the order to the given status; retried through {@link OptimisticLockRetry} if the
+     * order changes concurrently, so that the transition is counted from the status it really had.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order updateOrderStatus(Long id, OrderStatus status) {
         log.info("Updating order status for id: {} to {}", id, status);
-        Order order = getOrderById(id);
-        OrderStatus previousStatus = order.getStatus();
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
-        log.info("Order status changed from {} to {} for order id: {}", previousStatus, status, id);
-        return updatedOrder;
+        return optimisticLockRetry.execute("order.status", () -> {
+            Order order = getOrderById(id);
+            OrderStatus previousStatus = order.getStatus();
+            order.setStatus(status);
+            Order updatedOrder = orderRepository.save(order);
+            AfterCommit.run(() -> {
+                orderMetrics.statusChanged(previousStatus, status);
+                log.info("Order status changed from {} to {} for order id: {}", previousStatus, status, id);
+            });
+            return updatedOrder;
+        });
     }
 
     public void deleteOrder(Long id) {
@@ -72,17 +107,35 @@ public class OrderService {
         log.info("Order deleted successfully with id: {}", id);
     }
 
-    public List<Order> getOrdersByCustomerId(Long customerId) {
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrdersByCustomerId(Long customerId) {
         log.info("Fetching orders for customer id: {}", customerId);
-        List<Order> orders = orderRepository.findByCustomerId(customerId);
+        List<OrderSummary> orders = orderRepository.findSummariesByCustomerId(customerId);
         log.debug("Found {} orders for customer id: {}", orders.size(), customerId);
         return orders;
     }
 
-    public List<Order> getOrdersByStatus(OrderStatus status) {
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrdersByStatus(OrderStatus status) {
         log.info("Fetching orders with status: {}", status);
-        List<Order> orders = orderRepository.findByStatus(status);
+        List<OrderSummary> orders = orderRepository.findSummariesByStatus(status);
         log.debug("Found {} orders with status: {}", orders.size(), status);
         return orders;
     }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> getOrdersByCustomerId(Long customerId, Long cursor, int limit) {
+        log.info("Fetching orders for customer id: {} after cursor: {} (limit {})", customerId, cursor, limit);
+        List<OrderSummary> rows = orderRepository.findSummariesByCustomerIdAndIdGreaterThanOrderByIdAsc(
+                customerId, CursorPage.startOf(cursor), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, OrderSummary::id);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> getOrdersByStatus(OrderStatus status, Long cursor, int limit) {
+        log.info("Fetching orders with status: {} after cursor: {} (limit {})", status, cursor, limit);
+        List<OrderSummary> rows = orderRepository.findSummariesByStatusAndIdGreaterThanOrderByIdAsc(
+                status, CursorPage.startOf(cursor), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, OrderSummary::id);
+    }
 }
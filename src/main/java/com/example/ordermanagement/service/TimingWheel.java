@@ -0,0 +1,135 @@
+package com.example.ordermanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel that fires tasks at millisecond deadlines, rounded up to whole
+ * ticks.
+ * <p>
+ * Level {@code n} has {@value #SLOTS} slots of {@code 64^n} ticks each. A task is placed on the
+ * lowest level at which its deadline shares all higher-level digits with the current tick, and
+ * cascades down one level each time the wheel enters its slot, so scheduling and firing cost
+ * O(1) per level no matter how far away the deadline is.
+ * <p>
+ * Not thread-safe: callers serialize {@link #schedule} and {@link #advance}.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // Enough levels for any non-negative long tick
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 2) / SLOT_BITS;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final List<List<Entry<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = startMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(null);
+        }
+    }
+
+    /**
+     * Schedules the task to fire on the first {@link #advance} that reaches its deadline.
+     *
+     * @return false, without scheduling, if the deadline has already been reached
+     */
+    boolean schedule(long deadlineMillis, T task) {
+        long deadlineTick = deadlineTick(deadlineMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(deadlineTick, task));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time.
+     *
+     * @return the tasks whose deadline has been reached, in deadline order
+     */
+    List<T> advance(long nowMillis) {
+        // Only ticks that have fully elapsed; deadlines are rounded up, so nothing fires early
+        long targetTick = Math.max(0, Math.floorDiv(nowMillis - originMillis, tickMillis));
+        List<T> due = new ArrayList<>();
+        if (size == 0) {
+            currentTick = Math.max(currentTick, targetTick);
+            return due;
+        }
+        while (currentTick < targetTick && size > 0) {
+            currentTick++;
+            cascade();
+            List<Entry<T>> expired = slots.set(currentSlot(0), null);
+            if (expired != null) {
+                for (Entry<T> entry : expired) {
+                    due.add(entry.task);
+                }
+                size -= expired.size();
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Moves the tasks of every higher-level slot the wheel has just entered one or more levels
+     * down, highest level first so that they can cascade further within the same tick.
+     */
+    private void cascade() {
+        int highest = 0;
+        while (highest + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (highest + 1))) - 1)) == 0) {
+            highest++;
+        }
+        for (int level = highest; level > 0; level--) {
+            List<Entry<T>> entries = slots.set(currentSlot(level), null);
+            if (entries != null) {
+                entries.forEach(this::place);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        int level = 0;
+        while (level + 1 < LEVELS
+                && (entry.deadlineTick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = level * SLOTS + (int) ((entry.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        List<Entry<T>> slot = slots.get(index);
+        if (slot == null) {
+            slot = new ArrayList<>();
+            slots.set(index, slot);
+        }
+        slot.add(entry);
+    }
+
+    private int currentSlot(int level) {
+        return level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private long deadlineTick(long millis) {
+        long elapsed = millis - originMillis;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return Math.floorDiv(elapsed - 1, tickMillis) + 1;
+    }
+
+    private record Entry<T>(long deadlineTick, T task) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the currently valid coupons (active, not used up and inside their
+ * validity window), ordered by {@code validUntil}, so that listing them does not query the
+ * database.
+ * <p>
+ * Coupons changed through the services are re-indexed after commit. Coupons whose window has
+ * not opened yet are kept aside, and a {@link TimingWheel} moves them in when
+ * {@code validFrom} is reached and out again after {@code validUntil}, within one
+ * {@code coupon.valid-index.tick}. Redemptions only re-index the coupon they use up, so the
+ * listed {@code usedCount} otherwise lags behind. Such counts, and changes made behind the
+ * services' back such as the {@code used_count} flushes of {@link CouponRedemptionLedger},
+ * are picked up by a full reload every {@code coupon.valid-index.refresh-interval}.
+ * <p>
+ * Coupons that are still active but have expired or been used up are queued for
+ * {@link CouponDeactivator}.
+ */
+@Component
+@Slf4j
+public class ValidCouponIndex {
+
+    private static final Comparator<CouponView> BY_VALID_UNTIL =
+            Comparator.comparing(CouponView::validUntil).thenComparing(CouponView::id);
+
+    private final CouponRepository couponRepository;
+    private final long tickMillis;
+    private final Clock clock;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Guarded by this: every unexpired coupon by id, the valid ones among them and the
+    // pending window transitions. The changes list is non-null while a reload is running.
+    private final Map<Long, CouponView> tracked = new HashMap<>();
+    private final NavigableSet<CouponView> valid = new TreeSet<>(BY_VALID_UNTIL);
+    private final Map<Long, CouponView> toDeactivate = new LinkedHashMap<>();
+    private TimingWheel<Transition> wheel;
+    private List<Change> changesDuringRefresh;
+
+    // Rebuilt from the valid set on the first read after a change
+    private volatile List<CouponView> snapshot;
+
+    @Autowired
+    public ValidCouponIndex(CouponRepository couponRepository,
+                            @Value("${coupon.valid-index.tick:PT1S}") Duration tick) {
+        this(couponRepository, tick, Clock.systemDefaultZone());
+    }
+
+    ValidCouponIndex(CouponRepository couponRepository, Duration tick, Clock clock) {
+        this.couponRepository = couponRepository;
+        this.tickMillis = tick.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the currently valid coupons ordered by {@code validUntil}, loading the index on
+     * first use.
+     */
+    public List<CouponView> validCoupons() {
+        List<CouponView> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        if (!isLoaded()) {
+            refresh();
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = List.copyOf(valid);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Re-indexes the given coupon once the current transaction (if any) has committed.
+     */
+    public void update(Coupon coupon) {
+        if (coupon.getId() == null) {
+            return;
+        }
+        CouponView view = CouponView.of(coupon);
+        AfterCommit.run(() -> apply(new Change(view.id(), view)));
+    }
+
+    /**
+     * Re-indexes the given coupon after a redemption, but only if the redemption used it up.
+     * Other redemptions do not change which coupons are valid, and skipping them keeps the
+     * redemption path off the index's monitor and its snapshot intact.
+     */
+    public void redeemed(Coupon coupon) {
+        if (coupon.getUsedCount() >= coupon.getMaxUses()) {
+            update(coupon);
+        }
+    }
+
+    /**
+     * Drops the coupon with the given id once the current transaction (if any) has committed.
+     */
+    public void remove(Long id) {
+        AfterCommit.run(() -> apply(new Change(id, null)));
+    }
+
+    /**
+     * Moves coupons whose window has opened or closed since the last tick; called every
+     * {@code coupon.valid-index.tick} by {@link CouponDeactivator}.
+     */
+    public synchronized void tick() {
+        if (wheel == null) {
+            return;
+        }
+        for (Transition transition : wheel.advance(clock.millis())) {
+            CouponView coupon = transition.coupon();
+            if (tracked.get(coupon.id()) != coupon) {
+                continue;
+            }
+            if (transition.opens()) {
+                valid.add(coupon);
+            } else {
+                tracked.remove(coupon.id());
+                valid.remove(coupon);
+                toDeactivate.put(coupon.id(), coupon);
+            }
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Returns and forgets the active coupons found expired or used up since the last call.
+     */
+    public synchronized List<CouponView> drainExpired() {
+        List<CouponView> expired = List.copyOf(toDeactivate.values());
+        toDeactivate.clear();
+        return expired;
+    }
+
+    /**
+     * Rebuilds the index from the database. Changes applied while the query runs are replayed
+     * on top of its result, so a reload never undoes a newer update.
+     */
+    @Scheduled(fixedDelayString = "${coupon.valid-index.refresh-interval:PT10M}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            synchronized (this) {
+                changesDuringRefresh = new ArrayList<>();
+            }
+            // Queried outside the monitor: updates arriving meanwhile hold a pooled connection
+            List<CouponView> coupons = couponRepository.findAllUnexpiredCoupons(LocalDateTime.now(clock));
+            synchronized (this) {
+                LocalDateTime now = LocalDateTime.now(clock);
+                tracked.clear();
+                valid.clear();
+                wheel = new TimingWheel<>(tickMillis, clock.millis());
+                for (CouponView coupon : coupons) {
+                    index(coupon, now);
+                }
+                for (Change change : changesDuringRefresh) {
+                    reindex(change, now);
+                }
+                snapshot = null;
+                log.debug("Indexed {} unexpired coupons, {} valid now", tracked.size(), valid.size());
+            }
+        } finally {
+            synchronized (this) {
+                changesDuringRefresh = null;
+            }
+            refreshLock.unlock();
+        }
+    }
+
+    private synchronized boolean isLoaded() {
+        return wheel != null;
+    }
+
+    private synchronized void apply(Change change) {
+        if (changesDuringRefresh != null) {
+            changesDuringRefresh.add(change);
+        }
+        if (wheel != null) {
+            reindex(change, LocalDateTime.now(clock));
+        }
+    }
+
+    private void reindex(Change change, LocalDateTime now) {
+        CouponView previous = tracked.remove(change.id());
+        if (previous != null) {
+            valid.remove(previous);
+            snapshot = null;
+        }
+        if (change.coupon() != null) {
+            index(change.coupon(), now);
+        }
+    }
+
+    private void index(CouponView coupon, LocalDateTime now) {
+        if (!Boolean.TRUE.equals(coupon.active())) {
+            return;
+        }
+        // Valid up to and including validUntil, like CouponRepository.findAllValidCoupons
+        if (coupon.usedCount() >= coupon.maxUses()
+                || !wheel.schedule(toMillis(coupon.validUntil()) + 1, new Transition(coupon, false))) {
+            toDeactivate.put(coupon.id(), coupon);
+            return;
+        }
+        tracked.put(coupon.id(), coupon);
+        if (coupon.validFrom().isAfter(now)
+                && wheel.schedule(toMillis(coupon.validFrom()), new Transition(coupon, true))) {
+            return;
+        }
+        valid.add(coupon);
+        snapshot = null;
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private record Change(Long id, CouponView coupon) {
+    }
+
+    private record Transition(CouponView coupon, boolean opens) {
+    }
+}
@@ -1,9 +1,12 @@
+-- Coupon code generation reserves blocks of codes from this sequence (CouponCodeGenerator)
+CREATE SEQUENCE IF NOT EXISTS coupon_code_seq;
+
 -- Insert dummy data into orders table
-INSERT INTO orders (name, original_amount, final_amount, status, customer_id, created_at, updated_at)
-VALUES ('Premium Laptop Order', 1299.99, 1169.99, 'CREATED', 1001, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO orders (id, name, original_amount, final_amount, status, customer_id, created_at, updated_at)
+VALUES (NEXT VALUE FOR orders_seq, 'Premium Laptop Order', 1299.99, 1169.99, 'CREATED', 1001, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO orders (name, original_amount, final_amount, status, customer_id, created_at, updated_at)
-VALUES ('Wireless Headphones', 199.99, 179.99, 'PAID', 1002, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO orders (id, name, original_amount, final_amount, status, customer_id, created_at, updated_at)
+VALUES (NEXT VALUE FOR orders_seq, 'Wireless Headphones', 199.99, 179.99, 'PAID', 1002, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- Insert dummy data into coupons table
 -- Coupon 1: 20% off (PERCENTAGE type)
@@ -16,7 +19,7 @@ VALUES ('FLAT50OF', 'FIXED', 50.00, 100.00, 50, 10, '2026-01-01 00:00:00', '2026
 
 -- Coupon 3: 10% off for new users (PERCENTAGE)
 INSERT INTO coupons (code, type, discount_value, min_order_amount, max_uses, used_count, valid_from, valid_until, active)
-VALUES ('WELCOME10', 'PERCENTAGE', 10.00, 0.00, 500, 0, '2026-01-01 00:00:00', '2026-12-31 23:59:59', true);
+VALUES ('WELCOM10', 'PERCENTAGE', 10.00, 0.00, 500, 0, '2026-01-01 00:00:00', '2026-12-31 23:59:59', true);
 
 -- Coupon 4: 50% off max discount (PERCENTAGE)
 INSERT INTO coupons (code, type, discount_value, min_order_amount, max_uses, used_count, valid_from, valid_until, active)
@@ -0,0 +1,113 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.repository.CouponRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestClassOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the checkout load at high concurrency against the servlet/JPA stack and then against
+ * the reactive WebFlux/R2DBC stack of the {@code reactive} profile, and prints throughput, p99
+ * latency, peak heap and peak platform threads of both; results are written to
+ * {@code target/reactive-load-result.json}.
+ * <p>
+ * Run with {@code mvn test -Preactive,benchmark -Dtest=ReactiveStackLoadBenchmark -Dload.concurrency=512}.
+ */
+@Tag("benchmark")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class ReactiveStackLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+
+    private static final Map<String, Map<String, Object>> RESULTS = new LinkedHashMap<>();
+
+    @AfterAll
+    static void report() throws IOException {
+        System.out.printf("%n%-18s %9s %9s %7s %12s %12s%n",
+                "stack", "req/s", "p99 ms", "err %", "peak heap MB", "peak threads");
+        RESULTS.forEach((stack, result) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> total = (Map<String, Object>) result.get("total");
+            System.out.printf("%-18s %,9.0f %9.2f %7.2f %,12d %12d%n", stack, total.get("throughput"),
+                    total.get("p99Millis"), 100 * (double) total.get("errorRate"),
+                    result.get("peakHeapUsedMb"), result.get("peakPlatformThreads"));
+        });
+        File out = new File("target/reactive-load-result.json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, RESULTS);
+        System.out.println("Results written to " + out.getAbsolutePath());
+    }
+
+    @Nested
+    @Order(1)
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.jpa.show-sql=false",
+            "logging.level.com.example.ordermanagement=WARN"
+    })
+    @DirtiesContext
+    @DisplayName("Servlet and JPA")
+    class ServletStack {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("Checkout load on Tomcat with JPA")
+        void runLoad() throws Exception {
+            RESULTS.put("servlet + JPA", new CheckoutLoad(port, couponRepository, objectMapper)
+                    .run(CONCURRENCY, WARMUP, DURATION));
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.jpa.show-sql=false",
+            "logging.level.com.example.ordermanagement=WARN"
+    })
+    @ActiveProfiles("reactive")
+    @DirtiesContext
+    @DisplayName("WebFlux and R2DBC")
+    class ReactiveStack {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("Checkout load on Netty with R2DBC")
+        void runLoad() throws Exception {
+            RESULTS.put("webflux + R2DBC", new CheckoutLoad(port, couponRepository, objectMapper)
+                    .run(CONCURRENCY, WARMUP, DURATION));
+        }
+    }
+}
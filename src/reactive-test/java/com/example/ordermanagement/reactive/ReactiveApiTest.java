@@ -0,0 +1,157 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.controller.OrderController;
+import com.example.ordermanagement.entity.Order;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private Order createOrder(long customerId) {
+        return webTestClient.post().uri("/api/orders")
+                .bodyValue(Map.of("name", "Reactive order", "originalAmount", 120.00,
+                        "finalAmount", 100.00, "customerId", customerId))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Order.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private void createCoupon(String code, String type, double value, int maxUses) {
+        webTestClient.post().uri("/api/coupons")
+                .bodyValue(Map.of("code", code, "type", type, "value", value, "minOrderAmount", 0,
+                        "maxUses", maxUses,
+                        "validFrom", LocalDateTime.now().minusDays(1).toString(),
+                        "validUntil", LocalDateTime.now().plusDays(1).toString()))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    @Test
+    @DisplayName("Should serve the API from the reactive controllers only")
+    void shouldServeReactiveControllersOnly() {
+        assertEquals(1, applicationContext.getBeansOfType(ReactiveOrderController.class).size());
+        assertEquals(0, applicationContext.getBeanNamesForType(OrderController.class).length);
+    }
+
+    @Nested
+    @DisplayName("Order Endpoint Tests")
+    class OrderEndpointTests {
+
+        @Test
+        @DisplayName("Should create, read and change the status of an order")
+        void shouldCreateReadAndUpdateStatus() {
+            Order created = createOrder(880_001L);
+            assertNotNull(created.getId());
+            assertEquals("CREATED", created.getStatus().name());
+            assertNotNull(created.getCreatedAt());
+
+            webTestClient.get().uri("/api/orders/{id}", created.getId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo("Reactive order")
+                    .jsonPath("$.customerId").isEqualTo(880_001);
+
+            webTestClient.patch().uri("/api/orders/{id}/status?status=PAID", created.getId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.status").isEqualTo("PAID");
+        }
+
+        @Test
+        @DisplayName("Should page customer orders with the X-Next-Cursor header")
+        void shouldPageCustomerOrders() {
+            Order first = createOrder(880_002L);
+            createOrder(880_002L);
+            createOrder(880_002L);
+
+            List<?> page = webTestClient.get().uri("/api/orders/customer/880002?size=2")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().exists("X-Next-Cursor")
+                    .expectBodyList(Map.class)
+                    .returnResult()
+                    .getResponseBody();
+
+            assertEquals(2, page.size());
+            assertEquals(first.getId().intValue(), ((Map<?, ?>) page.get(0)).get("id"));
+        }
+
+        @Test
+        @DisplayName("Should return 404 for an unknown order and 400 for an invalid one")
+        void shouldReportErrors() {
+            webTestClient.get().uri("/api/orders/999999")
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Order not found with id: 999999");
+
+            webTestClient.post().uri("/api/orders")
+                    .bodyValue(Map.of("name", "", "originalAmount", 10, "finalAmount", 10, "customerId", 1))
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.errors.name").isEqualTo("Order name is required");
+        }
+    }
+
+    @Nested
+    @DisplayName("Coupon Endpoint Tests")
+    class CouponEndpointTests {
+
+        @Test
+        @DisplayName("Should calculate a discount with the shared discount rules")
+        void shouldCalculateDiscount() {
+            createCoupon("RXPCT15", "PERCENTAGE", 15.0, 10);
+
+            webTestClient.post().uri("/api/coupons/calculate-discount?code=RXPCT15&orderAmount=99.99")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.discount").isEqualTo(15.00)
+                    .jsonPath("$.finalAmount").isEqualTo(84.99);
+        }
+
+        @Test
+        @DisplayName("Should stop redeeming a coupon at its maximum uses")
+        void shouldStopAtMaxUses() {
+            createCoupon("RXFIX02", "FIXED", 5.0, 2);
+
+            for (int i = 1; i <= 2; i++) {
+                webTestClient.patch().uri("/api/coupons/code/RXFIX02/use")
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBody()
+                        .jsonPath("$.usedCount").isEqualTo(i);
+            }
+            webTestClient.patch().uri("/api/coupons/code/RXFIX02/use")
+                    .exchange()
+                    .expectStatus().is5xxServerError()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("An unexpected error occurred: Coupon has reached maximum uses");
+        }
+    }
+}
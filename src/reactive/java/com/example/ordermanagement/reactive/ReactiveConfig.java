@@ -0,0 +1,64 @@
+package com.example.ordermanagement.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Infrastructure of the reactive API, active only when the application runs as a reactive
+ * web application ({@code reactive} profile).
+ * <p>
+ * R2DBC access is set up here rather than by Spring Boot's {@code R2dbcAutoConfiguration},
+ * which is excluded: its {@code ConnectionFactory} bean would switch off the JDBC datasource
+ * that JPA, the schema and the seed data rely on.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * Serves the reactive API on Netty. Tomcat stays on the classpath for the servlet variant
+     * and would otherwise be preferred as the reactive server too.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Queries run on a pool built from the {@code spring.r2dbc.*} properties. The pool is kept
+     * out of the context because any {@code ConnectionFactory} bean switches off the JDBC
+     * datasource, and it is disposed with the context.
+     */
+    @Bean
+    public DatabaseClient databaseClient(R2dbcProperties properties) {
+        R2dbcProperties.Pool pool = properties.getPool();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                        .username(properties.getUsername())
+                        .password(properties.getPassword())
+                        .build())
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.config.PaginationProperties;
+import com.example.ordermanagement.controller.CursorPages;
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.dto.DiscountQuote;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
+import com.example.ordermanagement.entity.Coupon;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive variant of {@code CouponController}, serving the same {@code /api/coupons} contract.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/coupons")
+@RequiredArgsConstructor
+public class ReactiveCouponController {
+
+    private final ReactiveCouponService couponService;
+    private final PaginationProperties pagination;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<CouponView>>> getAllCoupons(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return couponService.getAllCoupons().collectList().map(ResponseEntity::ok);
+        }
+        return couponService.getCoupons(cursor, pagination.resolve(size)).map(CursorPages::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Coupon> getCouponById(@PathVariable Long id) {
+        return couponService.getCouponById(id);
+    }
+
+    @GetMapping("/code/{code}")
+    public Mono<Coupon> getCouponByCode(@PathVariable String code) {
+        return couponService.getCouponByCode(code);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Coupon> createCoupon(@Valid @RequestBody Coupon coupon) {
+        return couponService.createCoupon(coupon);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Coupon> updateCoupon(@PathVariable Long id, @Valid @RequestBody Coupon coupon) {
+        return couponService.updateCoupon(id, coupon);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteCoupon(@PathVariable Long id) {
+        return couponService.deleteCoupon(id);
+    }
+
+    @PatchMapping("/{id}/deactivate")
+    public Mono<Coupon> deactivateCoupon(@PathVariable Long id) {
+        return couponService.deactivateCoupon(id);
+    }
+
+    @GetMapping("/active")
+    public Mono<List<CouponView>> getActiveCoupons() {
+        return couponService.getActiveCoupons().collectList();
+    }
+
+    @GetMapping("/valid")
+    public Mono<List<CouponView>> getValidCoupons() {
+        return couponService.getValidCoupons().collectList();
+    }
+
+    @PostMapping("/calculate-discount")
+    public Mono<Map<String, BigDecimal>> calculateDiscount(
+            @RequestParam String code,
+            @RequestParam BigDecimal orderAmount,
+            @RequestParam(required = false) Long customerId) {
+        return couponService.calculateDiscount(code, orderAmount, customerId).map(discount -> Map.of(
+                "originalAmount", orderAmount,
+                "discount", discount,
+                "finalAmount", orderAmount.subtract(discount)
+        ));
+    }
+
+    @PostMapping("/calculate-discount/batch")
+    public Mono<List<DiscountQuote>> quoteDiscounts(@RequestBody List<DiscountQuoteRequest> requests) {
+        return couponService.quoteDiscounts(requests);
+    }
+
+    @PatchMapping("/code/{code}/use")
+    public Mono<Coupon> incrementUsedCountByCode(@PathVariable String code) {
+        return couponService.incrementUsedCountByCode(code);
+    }
+}
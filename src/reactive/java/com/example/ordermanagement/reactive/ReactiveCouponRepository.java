@@ -0,0 +1,217 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.entity.DiscountTiersConverter;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * R2DBC counterpart of {@code CouponRepository} for the reactive API. Redemptions use the same
+ * conditional updates, so the servlet and reactive variants can never over-redeem a coupon.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveCouponRepository {
+
+    private static final String COLUMNS = "id, code, type, discount_value, min_order_amount, max_uses, " +
+            "used_count, valid_from, valid_until, active, high_contention, max_discount_amount, discount_tiers, customer_id, " +
+            "campaign_id, version";
+
+    private static final DiscountTiersConverter TIERS = new DiscountTiersConverter();
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Coupon> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM coupons WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveCouponRepository::toCoupon)
+                .one();
+    }
+
+    public Mono<Coupon> findByCode(String code) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM coupons WHERE code = :code")
+                .bind("code", code)
+                .map(ReactiveCouponRepository::toCoupon)
+                .one();
+    }
+
+    public Flux<Coupon> findByCodeIn(Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM coupons WHERE code IN (:codes)")
+                .bind("codes", codes)
+                .map(ReactiveCouponRepository::toCoupon)
+                .all();
+    }
+
+    public Flux<CouponView> findViewsByOrderByIdAsc() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM coupons ORDER BY id")
+                .map(ReactiveCouponRepository::toView)
+                .all();
+    }
+
+    public Flux<CouponView> findViewsByActive(Boolean active) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM coupons WHERE active = :active")
+                .bind("active", active)
+                .map(ReactiveCouponRepository::toView)
+                .all();
+    }
+
+    public Flux<CouponView> findViewsByIdGreaterThanOrderByIdAsc(long cursor, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM coupons WHERE id > :cursor " +
+                        "ORDER BY id FETCH FIRST :limit ROWS ONLY")
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(ReactiveCouponRepository::toView)
+                .all();
+    }
+
+    /**
+     * Inserts a new coupon with a used count of zero and returns it with its generated id.
+     */
+    public Mono<Coupon> insert(Coupon coupon) {
+        coupon.setUsedCount(0);
+        return databaseClient.sql("INSERT INTO coupons (code, type, discount_value, min_order_amount, max_uses, " +
+                        "used_count, valid_from, valid_until, active, high_contention, max_discount_amount, discount_tiers, " +
+                        "customer_id) VALUES (:code, :type, :value, :minOrderAmount, :maxUses, 0, :validFrom, " +
+                        ":validUntil, :active, :highContention, :maxDiscountAmount, :tiers, :customerId)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("code", coupon.getCode())
+                .bind("type", coupon.getType().name())
+                .bind("value", coupon.getValue())
+                .bind("minOrderAmount", coupon.getMinOrderAmount())
+                .bind("maxUses", coupon.getMaxUses())
+                .bind("validFrom", coupon.getValidFrom())
+                .bind("validUntil", coupon.getValidUntil())
+                .bind("active", coupon.getActive())
+                .bind("highContention", coupon.getHighContention())
+                .bind("maxDiscountAmount", Parameter.fromOrEmpty(coupon.getMaxDiscountAmount(), BigDecimal.class))
+                .bind("tiers", Parameter.fromOrEmpty(TIERS.convertToDatabaseColumn(coupon.getTiers()), String.class))
+                .bind("customerId", Parameter.fromOrEmpty(coupon.getCustomerId(), Long.class))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    coupon.setId(id);
+                    coupon.setVersion(0L);
+                    return coupon;
+                });
+    }
+
+    /**
+     * Overwrites the editable fields of the coupon with the given id and bumps its version, so
+     * that JPA writers holding the old state lose their optimistic lock; {@code used_count} is
+     * left alone, as in the JPA mapping.
+     *
+     * @return the number of rows updated
+     */
+    public Mono<Long> update(Long id, Coupon coupon) {
+        return databaseClient.sql("UPDATE coupons SET type = :type, discount_value = :value, " +
+                        "min_order_amount = :minOrderAmount, max_uses = :maxUses, valid_from = :validFrom, " +
+                        "valid_until = :validUntil, active = :active, high_contention = :highContention, " +
+                        "max_discount_amount = :maxDiscountAmount, discount_tiers = :tiers, customer_id = :customerId, " +
+                        "version = version + 1 WHERE id = :id")
+                .bind("type", coupon.getType().name())
+                .bind("value", coupon.getValue())
+                .bind("minOrderAmount", coupon.getMinOrderAmount())
+                .bind("maxUses", coupon.getMaxUses())
+                .bind("validFrom", coupon.getValidFrom())
+                .bind("validUntil", coupon.getValidUntil())
+                .bind("active", coupon.getActive())
+                .bind("highContention", coupon.getHighContention())
+                .bind("maxDiscountAmount", Parameter.fromOrEmpty(coupon.getMaxDiscountAmount(), BigDecimal.class))
+                .bind("tiers", Parameter.fromOrEmpty(TIERS.convertToDatabaseColumn(coupon.getTiers()), String.class))
+                .bind("customerId", Parameter.fromOrEmpty(coupon.getCustomerId(), Long.class))
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return the number of rows updated
+     */
+    public Mono<Long> deactivate(Long id) {
+        return databaseClient.sql("UPDATE coupons SET active = FALSE, version = version + 1 WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return the number of rows deleted
+     */
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM coupons WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Redeems one use of the coupon in a single conditional update; see
+     * {@code CouponRepository#incrementUsedCountIfAvailableByCode}.
+     *
+     * @return 1 if a use was redeemed, 0 if the coupon does not exist, is exhausted or is high-contention
+     */
+    public Mono<Long> incrementUsedCountIfAvailableByCode(String code) {
+        return databaseClient.sql("UPDATE coupons SET used_count = used_count + 1 " +
+                        "WHERE code = :code AND used_count < max_uses AND high_contention = FALSE")
+                .bind("code", code)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Coupon toCoupon(Readable row) {
+        Coupon coupon = new Coupon();
+        coupon.setId(row.get("id", Long.class));
+        coupon.setCode(row.get("code", String.class));
+        coupon.setType(CouponType.valueOf(row.get("type", String.class)));
+        coupon.setValue(row.get("discount_value", BigDecimal.class));
+        coupon.setMinOrderAmount(row.get("min_order_amount", BigDecimal.class));
+        coupon.setMaxUses(row.get("max_uses", Integer.class));
+        coupon.setUsedCount(row.get("used_count", Integer.class));
+        coupon.setValidFrom(row.get("valid_from", LocalDateTime.class));
+        coupon.setValidUntil(row.get("valid_until", LocalDateTime.class));
+        coupon.setActive(row.get("active", Boolean.class));
+        coupon.setHighContention(row.get("high_contention", Boolean.class));
+        coupon.setMaxDiscountAmount(row.get("max_discount_amount", BigDecimal.class));
+        coupon.setTiers(TIERS.convertToEntityAttribute(row.get("discount_tiers", String.class)));
+        coupon.setCustomerId(row.get("customer_id", Long.class));
+        coupon.setCampaignId(row.get("campaign_id", Long.class));
+        coupon.setVersion(row.get("version", Long.class));
+        // Compiled on load, like the JPA mapping does
+        coupon.discountRule();
+        return coupon;
+    }
+
+    private static CouponView toView(Readable row) {
+        return new CouponView(
+                row.get("id", Long.class),
+                row.get("code", String.class),
+                CouponType.valueOf(row.get("type", String.class)),
+                row.get("discount_value", BigDecimal.class),
+                row.get("min_order_amount", BigDecimal.class),
+                row.get("max_discount_amount", BigDecimal.class),
+                TIERS.convertToEntityAttribute(row.get("discount_tiers", String.class)),
+                row.get("customer_id", Long.class),
+                row.get("max_uses", Integer.class),
+                row.get("used_count", Integer.class),
+                row.get("valid_from", LocalDateTime.class),
+                row.get("valid_until", LocalDateTime.class),
+                row.get("active", Boolean.class),
+                row.get("high_contention", Boolean.class));
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.dto.CursorPage;
+import com.example.ordermanagement.dto.DiscountQuote;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.exception.ResourceNotFoundException;
+import com.example.ordermanagement.service.CouponCache;
+import com.example.ordermanagement.service.CouponCodeGenerator;
+import com.example.ordermanagement.service.CouponMetrics;
+import com.example.ordermanagement.service.CouponMetrics.Rejection;
+import com.example.ordermanagement.service.CouponRedemptionLedger;
+import com.example.ordermanagement.service.CouponValidator;
+import com.example.ordermanagement.service.DiscountCalculator;
+import com.example.ordermanagement.service.ValidCouponIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of {@code CouponService}. Discounts are priced by the shared
+ * {@link DiscountCalculator} and checked by the shared {@link CouponValidator}, and coupons are
+ * read through the same {@link CouponCache}, which this service fills from R2DBC instead of JPA.
+ * <p>
+ * The high-contention redemption ledger flushes through JPA; calls into it that may touch the
+ * database run on the bounded elastic scheduler.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveCouponService {
+
+    private final ReactiveCouponRepository couponRepository;
+    private final CouponCache couponCache;
+    private final CouponRedemptionLedger redemptionLedger;
+    private final CouponMetrics couponMetrics;
+    private final DiscountCalculator discountCalculator;
+    private final CouponValidator couponValidator;
+    private final ValidCouponIndex validCouponIndex;
+    private final CouponCodeGenerator codeGenerator;
+
+    public Flux<CouponView> getAllCoupons() {
+        log.info("Fetching all coupons");
+        return couponRepository.findViewsByOrderByIdAsc();
+    }
+
+    public Mono<CursorPage<CouponView>> getCoupons(Long cursor, int limit) {
+        log.info("Fetching coupons after cursor: {} (limit {})", cursor, limit);
+        return couponRepository.findViewsByIdGreaterThanOrderByIdAsc(CursorPage.startOf(cursor), limit + 1)
+                .collectList()
+                .map(rows -> CursorPage.of(rows, limit, CouponView::id));
+    }
+
+    public Mono<Coupon> getCouponById(Long id) {
+        log.info("Fetching coupon with id: {}", id);
+        return couponRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("Coupon not found with id: {}", id);
+                    return new ResourceNotFoundException("Coupon not found with id: " + id);
+                }));
+    }
+
+    public Mono<Coupon> getCouponByCode(String code) {
+        log.info("Fetching coupon with code: {}", code);
+        return findByCode(code)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("Coupon not found with code: {}", code);
+                    return new ResourceNotFoundException("Coupon not found with code: " + code);
+                }));
+    }
+
+    public Mono<Coupon> createCoupon(Coupon coupon) {
+        log.info("Creating new coupon of type: {}", coupon.getType());
+        return Mono.fromRunnable(() -> couponValidator.validate(coupon))
+                .then(Mono.defer(() -> {
+                    if (coupon.getCode() != null && !coupon.getCode().isEmpty()) {
+                        return Mono.just(coupon);
+                    }
+                    // Blocks on the code sequence once per block of codes
+                    return Mono.fromCallable(() -> {
+                        coupon.setCode(codeGenerator.nextCode());
+                        return coupon;
+                    }).subscribeOn(Schedulers.boundedElastic());
+                }))
+                .flatMap(couponRepository::insert)
+                .doOnNext(savedCoupon -> {
+                    couponCache.put(savedCoupon);
+                    validCouponIndex.update(savedCoupon);
+                    log.info("Coupon created successfully with id: {} and code: {}", savedCoupon.getId(), savedCoupon.getCode());
+                });
+    }
+
+    public Mono<Coupon> updateCoupon(Long id, Coupon couponDetails) {
+        log.info("Updating coupon with id: {}", id);
+        return Mono.fromRunnable(() -> couponValidator.validate(couponDetails))
+                .then(retire(id))
+                .then(couponRepository.update(id, couponDetails))
+                .then(getCouponById(id))
+                .doOnNext(updatedCoupon -> {
+                    couponCache.put(updatedCoupon);
+                    validCouponIndex.update(updatedCoupon);
+                    log.info("Coupon updated successfully with id: {}", id);
+                });
+    }
+
+    public Mono<Void> deleteCoupon(Long id) {
+        log.info("Deleting coupon with id: {}", id);
+        return retire(id)
+                .then(getCouponById(id))
+                .flatMap(coupon -> couponRepository.deleteById(id)
+                        .doOnNext(deleted -> {
+                            couponCache.evict(coupon.getCode());
+                            validCouponIndex.remove(id);
+                            log.info("Coupon deleted successfully with id: {}", id);
+                        }))
+                .then();
+    }
+
+    public Mono<Coupon> deactivateCoupon(Long id) {
+        log.info("Deactivating coupon with id: {}", id);
+        return couponRepository.deactivate(id)
+                .then(getCouponById(id))
+                .doOnNext(deactivatedCoupon -> {
+                    couponCache.put(deactivatedCoupon);
+                    validCouponIndex.update(deactivatedCoupon);
+                    log.info("Coupon deactivated successfully with id: {}", id);
+                });
+    }
+
+    public Flux<CouponView> getActiveCoupons() {
+        log.info("Fetching all active coupons");
+        return couponRepository.findViewsByActive(true);
+    }
+
+    public Flux<CouponView> getValidCoupons() {
+        log.info("Fetching all valid coupons");
+        // The index loads itself with a blocking query on first use
+        return Mono.fromCallable(validCouponIndex::validCoupons)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(coupons -> coupons);
+    }
+
+    /**
+     * Redeems one use of the coupon with the given code, with the same guarantees as
+     * {@code CouponService#incrementUsedCountByCode}.
+     */
+    public Mono<Coupon> incrementUsedCountByCode(String code) {
+        log.info("Incrementing used count for coupon code: {}", code);
+        return getCouponByCode(code).flatMap(cachedCoupon -> {
+            Mono<Boolean> fromLedger = Boolean.TRUE.equals(cachedCoupon.getHighContention())
+                    ? redeemedFromLedger(cachedCoupon)
+                    : Mono.just(false);
+            return fromLedger.flatMap(redeemed -> redeemed ? Mono.just(cachedCoupon) : redeemFromRow(code));
+        });
+    }
+
+    private Mono<Coupon> redeemFromRow(String code) {
+        return couponRepository.incrementUsedCountIfAvailableByCode(code)
+                .flatMap(redeemed -> couponRepository.findByCode(code)
+                        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Coupon not found with code: " + code)))
+                        .flatMap(coupon -> {
+                            if (redeemed == 0) {
+                                // Switched to high-contention mode since it was cached
+                                Mono<Boolean> fromLedger = Boolean.TRUE.equals(coupon.getHighContention())
+                                        ? redeemedFromLedger(coupon)
+                                        : Mono.just(false);
+                                return fromLedger.flatMap(acquired -> {
+                                    if (acquired) {
+                                        return Mono.just(coupon);
+                                    }
+                                    log.warn("Coupon code: {} has reached maximum uses ({}/{})",
+                                            code, coupon.getUsedCount(), coupon.getMaxUses());
+                                    couponMetrics.rejected(Rejection.EXHAUSTED);
+                                    return Mono.error(new IllegalStateException("Coupon has reached maximum uses"));
+                                });
+                            }
+                            couponCache.put(coupon);
+                            validCouponIndex.redeemed(coupon);
+                            log.info("Coupon usage incremented to {}/{} for coupon code: {}",
+                                    coupon.getUsedCount(), coupon.getMaxUses(), code);
+                            return Mono.just(coupon);
+                        }));
+    }
+
+    public Mono<BigDecimal> calculateDiscount(String code, BigDecimal orderAmount, Long customerId) {
+        log.info("Calculating discount for coupon code: {} with order amount: {}", code, orderAmount);
+        return findByCode(code)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("Coupon not found with code: {}", code);
+                    couponMetrics.rejected(Rejection.NOT_FOUND);
+                    return new ResourceNotFoundException("Coupon not found with code: " + code);
+                }))
+                .map(coupon -> {
+                    BigDecimal discount = discountCalculator.apply(coupon, orderAmount, customerId);
+                    log.info("Calculated discount: {} for coupon code: {} (type: {})", discount, code, coupon.getType());
+                    return discount;
+                });
+    }
+
+    /**
+     * Quotes discounts for many (code, order amount) pairs at once; see
+     * {@code CouponService#quoteDiscounts}.
+     */
+    public Mono<List<DiscountQuote>> quoteDiscounts(List<DiscountQuoteRequest> requests) {
+        log.info("Quoting discounts for {} items", requests.size());
+        Set<String> codes = requests.stream()
+                .filter(Objects::nonNull)
+                .map(DiscountQuoteRequest::code)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return findAllByCodes(codes).map(coupons -> requests.stream()
+                .map(request -> discountCalculator.quote(request, coupons))
+                .toList());
+    }
+
+    private Mono<Coupon> findByCode(String code) {
+        return couponCache.findCached(code)
+                .map(Mono::just)
+                .orElseGet(() -> {
+                    long stamp = couponCache.stamp(code);
+                    return couponRepository.findByCode(code).doOnNext(coupon -> couponCache.putLoaded(coupon, stamp));
+                });
+    }
+
+    private Mono<Map<String, Coupon>> findAllByCodes(Set<String> codes) {
+        Map<String, Coupon> coupons = new HashMap<>();
+        Map<String, Long> stamps = new HashMap<>();
+        for (String code : codes) {
+            couponCache.findCached(code).ifPresentOrElse(coupon -> coupons.put(code, coupon),
+                    () -> stamps.put(code, couponCache.stamp(code)));
+        }
+        return couponRepository.findByCodeIn(stamps.keySet())
+                .doOnNext(coupon -> couponCache.putLoaded(coupon, stamps.get(coupon.getCode())))
+                .collect(() -> coupons, (found, coupon) -> found.put(coupon.getCode(), coupon));
+    }
+
+    // Emits false if the row is not in high-contention mode, so the coupon must be redeemed
+    // through its row; see CouponService#redeemedFromLedger
+    private Mono<Boolean> redeemedFromLedger(Coupon coupon) {
+        return Mono.fromCallable(() -> redemptionLedger.acquire(coupon.getId()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(outcome -> {
+                    if (outcome == CouponRedemptionLedger.Outcome.EXHAUSTED) {
+                        log.warn("High-contention coupon id: {} has reached maximum uses ({})", coupon.getId(), coupon.getMaxUses());
+                        couponMetrics.rejected(Rejection.EXHAUSTED);
+                        return Mono.error(new IllegalStateException("Coupon has reached maximum uses"));
+                    }
+                    if (outcome == CouponRedemptionLedger.Outcome.SUSPENDED) {
+                        log.warn("Redemptions of high-contention coupon id: {} are suspended until its usage can be saved", coupon.getId());
+                        return Mono.error(new IllegalStateException("Coupon redemptions are suspended until its usage can be saved"));
+                    }
+                    return Mono.just(outcome == CouponRedemptionLedger.Outcome.ACQUIRED);
+                });
+    }
+
+    private Mono<Void> retire(Long id) {
+        return Mono.fromRunnable(() -> redemptionLedger.retire(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
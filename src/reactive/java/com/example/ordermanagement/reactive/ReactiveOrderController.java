@@ -0,0 +1,109 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.config.PaginationProperties;
+import com.example.ordermanagement.controller.CursorPages;
+import com.example.ordermanagement.dto.OrderExportFilter;
+import com.example.ordermanagement.dto.OrderSummary;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reactive variant of {@code OrderController}, serving the same {@code /api/orders} contract
+ * except {@code POST /api/orders/bulk}, which stays on the servlet stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService orderService;
+    private final PaginationProperties pagination;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<OrderSummary>>> getAllOrders(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return orderService.getAllOrders().collectList().map(ResponseEntity::ok);
+        }
+        return orderService.getOrders(cursor, pagination.resolve(size)).map(CursorPages::ok);
+    }
+
+    /**
+     * Streams every matching order as newline-delimited JSON as rows arrive from the database.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Order> exportOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        return orderService.exportOrders(new OrderExportFilter(status, customerId, createdFrom, createdTo));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Order> getOrderById(@PathVariable Long id) {
+        return orderService.getOrderById(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Order> createOrder(@Valid @RequestBody Order order) {
+        return orderService.createOrder(order);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Order> updateOrder(@PathVariable Long id, @Valid @RequestBody Order order) {
+        return orderService.updateOrder(id, order);
+    }
+
+    @PatchMapping("/{id}/status")
+    public Mono<Order> updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status) {
+        return orderService.updateOrderStatus(id, status);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteOrder(@PathVariable Long id) {
+        return orderService.deleteOrder(id);
+    }
+
+    @GetMapping("/customer/{customerId}")
+    public Mono<ResponseEntity<List<OrderSummary>>> getOrdersByCustomerId(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return orderService.getOrdersByCustomerId(customerId).collectList().map(ResponseEntity::ok);
+        }
+        return orderService.getOrdersByCustomerId(customerId, cursor, pagination.resolve(size)).map(CursorPages::ok);
+    }
+
+    @GetMapping("/status/{status}")
+    public Mono<ResponseEntity<List<OrderSummary>>> getOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return orderService.getOrdersByStatus(status).collectList().map(ResponseEntity::ok);
+        }
+        return orderService.getOrdersByStatus(status, cursor, pagination.resolve(size)).map(CursorPages::ok);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.dto.OrderExportFilter;
+import com.example.ordermanagement.dto.OrderSummary;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC counterpart of {@code OrderRepository} for the reactive API. It reads and writes the
+ * same {@code orders} table, whose schema is still created from the JPA entity.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveOrderRepository {
+
+    private static final String SUMMARY_COLUMNS = "id, name, original_amount, final_amount, status, customer_id";
+    private static final String ORDER_COLUMNS = SUMMARY_COLUMNS + ", created_at, updated_at, version";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<OrderSummary> findSummariesByOrderByIdAsc() {
+        return databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM orders ORDER BY id")
+                .map(ReactiveOrderRepository::toSummary)
+                .all();
+    }
+
+    public Flux<OrderSummary> findSummariesByCustomerId(Long customerId) {
+        return databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM orders WHERE customer_id = :customerId")
+                .bind("customerId", customerId)
+                .map(ReactiveOrderRepository::toSummary)
+                .all();
+    }
+
+    public Flux<OrderSummary> findSummariesByStatus(OrderStatus status) {
+        return databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM orders WHERE status = :status")
+                .bind("status", status.name())
+                .map(ReactiveOrderRepository::toSummary)
+                .all();
+    }
+
+    // Keyset pagination: each page starts strictly after the last id of the previous one
+
+    public Flux<OrderSummary> findSummariesByIdGreaterThanOrderByIdAsc(long cursor, int limit) {
+        return databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM orders WHERE id > :cursor " +
+                        "ORDER BY id FETCH FIRST :limit ROWS ONLY")
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(ReactiveOrderRepository::toSummary)
+                .all();
+    }
+
+    public Flux<OrderSummary> findSummariesByCustomerIdAndIdGreaterThanOrderByIdAsc(Long customerId, long cursor, int limit) {
+        return databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM orders WHERE customer_id = :customerId " +
+                        "AND id > :cursor ORDER BY id FETCH FIRST :limit ROWS ONLY")
+                .bind("customerId", customerId)
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(ReactiveOrderRepository::toSummary)
+                .all();
+    }
+
+    public Flux<OrderSummary> findSummariesByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus status, long cursor, int limit) {
+        return databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM orders WHERE status = :status " +
+                        "AND id > :cursor ORDER BY id FETCH FIRST :limit ROWS ONLY")
+                .bind("status", status.name())
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(ReactiveOrderRepository::toSummary)
+                .all();
+    }
+
+    public Mono<Order> findById(Long id) {
+        return databaseClient.sql("SELECT " + ORDER_COLUMNS + " FROM orders WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveOrderRepository::toOrder)
+                .one();
+    }
+
+    /**
+     * Inserts the order with an id drawn from {@code orders_seq}, like the seed data does, and
+     * stamps its audit timestamps.
+     */
+    public Mono<Order> insert(Order order) {
+        return databaseClient.sql("SELECT NEXT VALUE FOR orders_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    order.setId(id);
+                    order.setCreatedAt(now);
+                    order.setUpdatedAt(now);
+                    order.setVersion(0L);
+                    return databaseClient.sql("INSERT INTO orders (" + ORDER_COLUMNS + ") VALUES (:id, :name, " +
+                                    ":originalAmount, :finalAmount, :status, :customerId, :createdAt, :updatedAt, 0)")
+                            .bind("id", id)
+                            .bind("name", order.getName())
+                            .bind("originalAmount", order.getOriginalAmount())
+                            .bind("finalAmount", order.getFinalAmount())
+                            .bind("status", order.getStatus().name())
+                            .bind("customerId", order.getCustomerId())
+                            .bind("createdAt", now)
+                            .bind("updatedAt", now)
+                            .then()
+                            .thenReturn(order);
+                });
+    }
+
+    /**
+     * Overwrites the editable fields of the order with the given id and bumps its version, so
+     * that JPA writers holding the old state lose their optimistic lock.
+     *
+     * @return the number of rows updated
+     */
+    public Mono<Long> update(Long id, Order order) {
+        return databaseClient.sql("UPDATE orders SET name = :name, original_amount = :originalAmount, " +
+                        "final_amount = :finalAmount, customer_id = :customerId, updated_at = :updatedAt, " +
+                        "version = version + 1 WHERE id = :id")
+                .bind("name", order.getName())
+                .bind("originalAmount", order.getOriginalAmount())
+                .bind("finalAmount", order.getFinalAmount())
+                .bind("customerId", order.getCustomerId())
+                .bind("updatedAt", LocalDateTime.now())
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return the number of rows updated
+     */
+    public Mono<Long> updateStatus(Long id, OrderStatus status) {
+        return databaseClient.sql("UPDATE orders SET status = :status, updated_at = :updatedAt, version = version + 1 " +
+                        "WHERE id = :id")
+                .bind("status", status.name())
+                .bind("updatedAt", LocalDateTime.now())
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return the number of rows deleted
+     */
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM orders WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Streams matching orders in id order as they are read; null filter fields do not filter.
+     */
+    public Flux<Order> streamForExport(OrderExportFilter filter) {
+        StringBuilder sql = new StringBuilder("SELECT " + ORDER_COLUMNS + " FROM orders WHERE 1 = 1");
+        if (filter.status() != null) {
+            sql.append(" AND status = :status");
+        }
+        if (filter.customerId() != null) {
+            sql.append(" AND customer_id = :customerId");
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND created_at >= :createdFrom");
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND created_at < :createdTo");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.append(" ORDER BY id").toString());
+        if (filter.status() != null) {
+            spec = spec.bind("status", filter.status().name());
+        }
+        if (filter.customerId() != null) {
+            spec = spec.bind("customerId", filter.customerId());
+        }
+        if (filter.createdFrom() != null) {
+            spec = spec.bind("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            spec = spec.bind("createdTo", filter.createdTo());
+        }
+        return spec.map(ReactiveOrderRepository::toOrder).all();
+    }
+
+    private static OrderSummary toSummary(Readable row) {
+        return new OrderSummary(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("original_amount", BigDecimal.class),
+                row.get("final_amount", BigDecimal.class),
+                OrderStatus.valueOf(row.get("status", String.class)),
+                row.get("customer_id", Long.class));
+    }
+
+    private static Order toOrder(Readable row) {
+        Order order = new Order();
+        order.setId(row.get("id", Long.class));
+        order.setName(row.get("name", String.class));
+        order.setOriginalAmount(row.get("original_amount", BigDecimal.class));
+        order.setFinalAmount(row.get("final_amount", BigDecimal.class));
+        order.setStatus(OrderStatus.valueOf(row.get("status", String.class)));
+        order.setCustomerId(row.get("customer_id", Long.class));
+        order.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        order.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        order.setVersion(row.get("version", Long.class));
+        return order;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.ordermanagement.reactive;
+
+import com.example.ordermanagement.dto.CursorPage;
+import com.example.ordermanagement.dto.OrderExportFilter;
+import com.example.ordermanagement.dto.OrderSummary;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import com.example.ordermanagement.exception.ResourceNotFoundException;
+import com.example.ordermanagement.service.OrderMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@code OrderService} with the same rules and metrics. Every
+ * write is a single statement, so no transaction manager is involved.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveOrderService {
+
+    private final ReactiveOrderRepository orderRepository;
+    private final OrderMetrics orderMetrics;
+
+    public Flux<OrderSummary> getAllOrders() {
+        log.info("Fetching all orders");
+        return orderRepository.findSummariesByOrderByIdAsc();
+    }
+
+    public Mono<CursorPage<OrderSummary>> getOrders(Long cursor, int limit) {
+        log.info("Fetching orders after cursor: {} (limit {})", cursor, limit);
+        return orderRepository.findSummariesByIdGreaterThanOrderByIdAsc(CursorPage.startOf(cursor), limit + 1)
+                .collectList()
+                .map(rows -> CursorPage.of(rows, limit, OrderSummary::id));
+    }
+
+    public Mono<Order> getOrderById(Long id) {
+        log.info("Fetching order with id: {}", id);
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<Order> createOrder(Order order) {
+        log.info("Creating new order for customer: {}", order.getCustomerId());
+        order.setStatus(OrderStatus.CREATED);
+        return orderRepository.insert(order)
+                .doOnNext(savedOrder -> {
+                    orderMetrics.created();
+                    log.info("Order created successfully with id: {}", savedOrder.getId());
+                });
+    }
+
+    public Mono<Order> updateOrder(Long id, Order orderDetails) {
+        log.info("Updating order with id: {}", id);
+        return orderRepository.update(id, orderDetails)
+                .flatMap(updated -> updated == 0 ? Mono.error(notFound(id)) : orderRepository.findById(id))
+                .doOnNext(updatedOrder -> log.info("Order updated successfully with id: {}", id));
+    }
+
+    public Mono<Order> updateOrderStatus(Long id, OrderStatus status) {
+        log.info("Updating order status for id: {} to {}", id, status);
+        return getOrderById(id)
+                .flatMap(order -> {
+                    OrderStatus previousStatus = order.getStatus();
+                    return orderRepository.updateStatus(id, status)
+                            .then(orderRepository.findById(id))
+                            .doOnNext(updatedOrder -> {
+                                orderMetrics.statusChanged(previousStatus, status);
+                                log.info("Order status changed from {} to {} for order id: {}", previousStatus, status, id);
+                            });
+                });
+    }
+
+    public Mono<Void> deleteOrder(Long id) {
+        log.info("Deleting order with id: {}", id);
+        return orderRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>error(notFound(id)) : Mono.<Void>empty())
+                .doOnSuccess(ignored -> log.info("Order deleted successfully with id: {}", id));
+    }
+
+    public Flux<OrderSummary> getOrdersByCustomerId(Long customerId) {
+        log.info("Fetching orders for customer id: {}", customerId);
+        return orderRepository.findSummariesByCustomerId(customerId);
+    }
+
+    public Flux<OrderSummary> getOrdersByStatus(OrderStatus status) {
+        log.info("Fetching orders with status: {}", status);
+        return orderRepository.findSummariesByStatus(status);
+    }
+
+    public Mono<CursorPage<OrderSummary>> getOrdersByCustomerId(Long customerId, Long cursor, int limit) {
+        log.info("Fetching orders for customer id: {} after cursor: {} (limit {})", customerId, cursor, limit);
+        return orderRepository.findSummariesByCustomerIdAndIdGreaterThanOrderByIdAsc(customerId, CursorPage.startOf(cursor), limit + 1)
+                .collectList()
+                .map(rows -> CursorPage.of(rows, limit, OrderSummary::id));
+    }
+
+    public Mono<CursorPage<OrderSummary>> getOrdersByStatus(OrderStatus status, Long cursor, int limit) {
+        log.info("Fetching orders with status: {} after cursor: {} (limit {})", status, cursor, limit);
+        return orderRepository.findSummariesByStatusAndIdGreaterThanOrderByIdAsc(status, CursorPage.startOf(cursor), limit + 1)
+                .collectList()
+                .map(rows -> CursorPage.of(rows, limit, OrderSummary::id));
+    }
+
+    public Flux<Order> exportOrders(OrderExportFilter filter) {
+        log.info("Exporting orders matching {}", filter);
+        return orderRepository.streamForExport(filter);
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        log.error("Order not found with id: {}", id);
+        return new ResourceNotFoundException("Order not found with id: " + id);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.dto.BulkOrderResult;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.BulkOrderService;
+import com.example.ordermanagement.service.OrderService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares inserting orders one {@link OrderService#createOrder} call at a time with
+ * {@link BulkOrderService#createOrders} on the embedded H2 database.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.ordermanagement=WARN"
+})
+class BulkOrderInsertBenchmark {
+
+    private static final int WARMUP_ORDERS = 2_000;
+    private static final int MEASURED_ORDERS = 20_000;
+    private static final int BULK_REQUEST_SIZE = 5_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    @DisplayName("Bulk insert vs single insert throughput")
+    void compareBulkWithSingleInserts() {
+        insertOneByOne(WARMUP_ORDERS);
+        insertInBulk(WARMUP_ORDERS);
+        long before = orderRepository.count();
+
+        long singleNanos = timed(() -> insertOneByOne(MEASURED_ORDERS));
+        long bulkNanos = timed(() -> insertInBulk(MEASURED_ORDERS));
+
+        report("single", singleNanos);
+        report("bulk", bulkNanos);
+        System.out.printf("bulk speed-up: %.1fx%n", (double) singleNanos / bulkNanos);
+        assertEquals(before + 2L * MEASURED_ORDERS, orderRepository.count());
+    }
+
+    private void insertOneByOne(int count) {
+        for (int i = 0; i < count; i++) {
+            orderService.createOrder(newOrder(i));
+        }
+    }
+
+    private void insertInBulk(int count) {
+        for (int offset = 0; offset < count; offset += BULK_REQUEST_SIZE) {
+            List<Order> orders = new ArrayList<>(BULK_REQUEST_SIZE);
+            for (int i = offset; i < Math.min(count, offset + BULK_REQUEST_SIZE); i++) {
+                orders.add(newOrder(i));
+            }
+            List<BulkOrderResult> results = bulkOrderService.createOrders(orders);
+            assertTrue(results.stream().allMatch(result -> result.error() == null));
+        }
+    }
+
+    private static Order newOrder(int i) {
+        Order order = new Order();
+        order.setName("Benchmark order " + i);
+        order.setOriginalAmount(new BigDecimal("120.00"));
+        order.setFinalAmount(new BigDecimal("100.00"));
+        order.setCustomerId(10_000L + i % 1_000);
+        return order;
+    }
+
+    private static long timed(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String mode, long nanos) {
+        System.out.printf("%-6s %,d orders in %,d ms (%,.0f orders/s)%n",
+                mode, MEASURED_ORDERS, nanos / 1_000_000, MEASURED_ORDERS * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Closed-loop mix of checkout traffic against the application listening on a local port,
+ * shared by the HTTP load benchmarks. While recording it also samples the heap in use and the
+ * number of live platform threads of the JVM, which hosts both the server and the clients.
+ */
+final class CheckoutLoad {
+
+    private static final int CUSTOMERS = 1_000;
+    private static final int COUPONS = 20;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+
+    private final String baseUrl;
+    private final CouponRepository couponRepository;
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<String> couponCodes = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> createdOrderIds = new ConcurrentLinkedQueue<>();
+
+    private Endpoint createOrder;
+
+    CheckoutLoad(int port, CouponRepository couponRepository, ObjectMapper objectMapper) {
+        this.baseUrl = "http://localhost:" + port;
+        this.couponRepository = couponRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * One kind of request in the traffic mix, with its share of the requests and its statistics.
+     */
+    private final class Endpoint {
+
+        final String name;
+        final int weight;
+        final RequestFactory requests;
+        final Recorder latencies = new Recorder(MAX_LATENCY_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+
+        Endpoint(String name, int weight, RequestFactory requests) {
+            this.name = name;
+            this.weight = weight;
+            this.requests = requests;
+        }
+
+        void call(boolean record) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(requests.next(), HttpResponse.BodyHandlers.ofString());
+                long elapsed = System.nanoTime() - start;
+                if (!record) {
+                    return;
+                }
+                latencies.recordValue(Math.min(elapsed, MAX_LATENCY_NANOS));
+                if (response.statusCode() >= 400) {
+                    errors.increment();
+                } else if (this == createOrder) {
+                    createdOrderIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+            } catch (IOException ex) {
+                if (record) {
+                    latencies.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+                    errors.increment();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest next() throws IOException;
+    }
+
+    /**
+     * Seeds the coupons, drives the traffic from {@code concurrency} threads for {@code warmup}
+     * unrecorded and then {@code duration} recorded, prints a table and returns the statistics.
+     */
+    Map<String, Object> run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        seedCoupons();
+        List<Endpoint> mix = trafficMix();
+        int totalWeight = mix.stream().mapToInt(endpoint -> endpoint.weight).sum();
+
+        AtomicBoolean recording = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                try {
+                    while (running.get()) {
+                        pick(mix, totalWeight).call(recording.get());
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        Thread.sleep(warmup.toMillis());
+        mix.forEach(endpoint -> endpoint.latencies.reset());
+        recording.set(true);
+        long start = System.nanoTime();
+        long[] peaks = samplePeaks(duration);
+        recording.set(false);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        assertTrue(finished.await(1, TimeUnit.MINUTES));
+        workers.shutdown();
+
+        Map<String, Object> result = report(mix, concurrency, seconds);
+        result.put("peakHeapUsedMb", peaks[0] / (1024 * 1024));
+        result.put("peakPlatformThreads", peaks[1]);
+        System.out.printf("peak heap used %,d MB, peak platform threads %d%n",
+                result.get("peakHeapUsedMb"), peaks[1]);
+        return result;
+    }
+
+    private static long[] samplePeaks(Duration duration) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long peakHeap = 0;
+        long peakThreads = 0;
+        long end = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < end) {
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            peakThreads = Math.max(peakThreads, threads.getThreadCount());
+            Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+        }
+        return new long[]{peakHeap, peakThreads};
+    }
+
+    private List<Endpoint> trafficMix() {
+        createOrder = new Endpoint("POST /api/orders", 30, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000, 50_000), 2);
+            Map<String, Object> order = Map.of(
+                    "name", "Load test order",
+                    "originalAmount", amount,
+                    "finalAmount", amount,
+                    "customerId", random.nextLong(1, CUSTOMERS + 1));
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order)))
+                    .build();
+        });
+        Endpoint updateStatus = new Endpoint("PATCH /api/orders/{id}/status", 15, () -> {
+            Long id = createdOrderIds.poll();
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/" + (id != null ? id : 1L) + "/status?status=PAID"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build();
+        });
+        Endpoint customerOrders = new Endpoint("GET /api/orders/customer/{id}", 25, () ->
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/customer/"
+                        + ThreadLocalRandom.current().nextLong(1, CUSTOMERS + 1) + "?size=20")).GET().build());
+        Endpoint calculateDiscount = new Endpoint("POST /api/coupons/calculate-discount", 20, () ->
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/coupons/calculate-discount?code=" + randomCoupon()
+                                + "&orderAmount=" + BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1_000, 50_000), 2)))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build());
+        Endpoint useCoupon = new Endpoint("PATCH /api/coupons/code/{code}/use", 10, () ->
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/coupons/code/" + randomCoupon() + "/use"))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                        .build());
+        return List.of(createOrder, updateStatus, customerOrders, calculateDiscount, useCoupon);
+    }
+
+    private void seedCoupons() {
+        for (int i = 0; i < COUPONS; i++) {
+            Coupon coupon = new Coupon();
+            coupon.setCode(String.format("LOAD%04d", i));
+            coupon.setType(i % 2 == 0 ? CouponType.PERCENTAGE : CouponType.FIXED);
+            coupon.setValue(new BigDecimal(i % 2 == 0 ? "10.00" : "5.00"));
+            coupon.setMinOrderAmount(BigDecimal.ZERO);
+            coupon.setMaxUses(Integer.MAX_VALUE);
+            coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+            coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+            couponCodes.add(couponRepository.save(coupon).getCode());
+        }
+    }
+
+    private String randomCoupon() {
+        return couponCodes.get(ThreadLocalRandom.current().nextInt(couponCodes.size()));
+    }
+
+    private static Endpoint pick(List<Endpoint> mix, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : mix) {
+            ticket -= endpoint.weight;
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("Empty traffic mix");
+    }
+
+    private static Map<String, Object> report(List<Endpoint> mix, int concurrency, double seconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrency", concurrency);
+        result.put("durationSeconds", seconds);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        long totalErrors = 0;
+
+        System.out.printf("%nconcurrency %d, %.1f s%n", concurrency, seconds);
+        System.out.printf("%-38s %9s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "err %", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : mix) {
+            Histogram histogram = endpoint.latencies.getIntervalHistogram();
+            total.add(histogram);
+            totalErrors += endpoint.errors.sum();
+            endpoints.put(endpoint.name, print(endpoint.name, histogram, endpoint.errors.sum(), seconds));
+        }
+        result.put("endpoints", endpoints);
+        result.put("total", print("total", total, totalErrors, seconds));
+        assertTrue(total.getTotalCount() > 0);
+        return result;
+    }
+
+    private static Map<String, Object> print(String name, Histogram histogram, long errors, double seconds) {
+        long requests = histogram.getTotalCount();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests);
+        stats.put("throughput", requests / seconds);
+        stats.put("errorRate", requests == 0 ? 0.0 : (double) errors / requests);
+        stats.put("p50Millis", millis(histogram.getValueAtPercentile(50)));
+        stats.put("p99Millis", millis(histogram.getValueAtPercentile(99)));
+        stats.put("p999Millis", millis(histogram.getValueAtPercentile(99.9)));
+        stats.put("maxMillis", millis(histogram.getMaxValue()));
+        System.out.printf("%-38s %,9d %,9.0f %7.2f %9.2f %9.2f %9.2f %9.2f%n", name, requests,
+                stats.get("throughput"), 100 * (double) stats.get("errorRate"), stats.get("p50Millis"),
+                stats.get("p99Millis"), stats.get("p999Millis"), stats.get("maxMillis"));
+        return stats;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.repository.CouponRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Closed-loop HTTP load test: boots the application on H2 with a random port and drives a mix
+ * of checkout traffic through the real controllers from {@code load.concurrency} threads for
+ * {@code load.duration}, after a {@code load.warmup} that is not recorded. Prints throughput,
+ * error rate and p50/p99/p99.9 latency per endpoint and writes them to
+ * {@code target/load-test-result.json}.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=CheckoutLoadBenchmark -Dload.concurrency=32 -Dload.duration=PT60S}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.ordermanagement=WARN"
+})
+class CheckoutLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT20S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Mixed checkout traffic through the HTTP endpoints")
+    void runMixedCheckoutLoad() throws Exception {
+        Map<String, Object> result = new CheckoutLoad(port, couponRepository, objectMapper)
+                .run(CONCURRENCY, WARMUP, DURATION);
+
+        File out = new File("target/load-test-result.json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, result);
+        System.out.println("Results written to " + out.getAbsolutePath());
+    }
+}
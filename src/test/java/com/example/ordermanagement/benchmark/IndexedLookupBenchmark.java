@@ -0,0 +1,141 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.OrderStatus;
+import com.example.ordermanagement.repository.CouponRepository;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.ValidCouponIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the order and coupon lookups against {@value #ROWS} orders and as many coupons, first
+ * with the indexes declared on the entities and then with those indexes dropped, printing the
+ * H2 query plan and the mean latency of each lookup.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.ordermanagement=WARN"
+})
+@DirtiesContext
+class IndexedLookupBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int CUSTOMERS = 100_000;
+    private static final int ITERATIONS = 200;
+    private static final int WARMUP_ITERATIONS = 20;
+
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_orders_customer_id", "orders (customer_id, id)",
+            "idx_orders_customer_status", "orders (customer_id, status)",
+            "idx_orders_status_id", "orders (status, id)",
+            "idx_orders_status_created_at", "orders (status, created_at)",
+            "idx_coupons_active_validity", "coupons (active, valid_until, valid_from)");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private ValidCouponIndex validCouponIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Order and coupon lookups at 1M rows with and without indexes")
+    void compareLookupsWithAndWithoutIndexes() {
+        seed();
+        // Discarded pass: lets the JIT and the collector settle after seeding
+        runLookups();
+
+        Map<String, Double> indexed = runLookups();
+        INDEXES.keySet().forEach(index -> jdbcTemplate.execute("DROP INDEX " + index));
+        Map<String, Double> unindexed = runLookups();
+        INDEXES.forEach((index, columns) -> jdbcTemplate.execute("CREATE INDEX " + index + " ON " + columns));
+
+        System.out.printf("%n%-28s %14s %14s%n", "lookup", "indexed us", "no index us");
+        indexed.forEach((lookup, micros) ->
+                System.out.printf("%-28s %,14.1f %,14.1f%n", lookup, micros, unindexed.get(lookup)));
+    }
+
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO orders (id, name, original_amount, final_amount, status, customer_id, " +
+                "created_at, updated_at) SELECT NEXT VALUE FOR orders_seq, 'Volume order ' || X, 120.00, 100.00, " +
+                "CASEWHEN(MOD(X, 3) = 0, 'CREATED', CASEWHEN(MOD(X, 3) = 1, 'PAID', 'CANCELLED')), " +
+                "MOD(X, ?), DATEADD('SECOND', -X, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, ?)", CUSTOMERS, ROWS);
+        // Roughly 1% of the coupons are inside their validity window and active
+        jdbcTemplate.update("INSERT INTO coupons (code, type, discount_value, min_order_amount, max_uses, " +
+                "used_count, valid_from, valid_until, active, high_contention) " +
+                "SELECT 'V' || LPAD(X, 7, '0'), 'FIXED', 5.00, 0.00, 100, 0, " +
+                "DATEADD('DAY', -30, CURRENT_TIMESTAMP), " +
+                "DATEADD('DAY', CASEWHEN(MOD(X, 50) = 0, 30, -1), CURRENT_TIMESTAMP), MOD(X, 2) = 0, false " +
+                "FROM SYSTEM_RANGE(1, ?)", ROWS);
+        jdbcTemplate.execute("ANALYZE");
+        assertTrue(orderRepository.count() >= ROWS);
+        // Seeded behind the services' back
+        validCouponIndex.refresh();
+    }
+
+    private Map<String, Double> runLookups() {
+        Map<String, Double> micros = new LinkedHashMap<>();
+        micros.put("orders by customer", measure(
+                "SELECT * FROM orders WHERE customer_id = 4242",
+                i -> assertFalse(orderRepository.findSummariesByCustomerId((long) (i * 7919 % CUSTOMERS)).isEmpty())));
+        micros.put("orders by customer, page", measure(
+                "SELECT * FROM orders WHERE customer_id = 4242 AND id > 0 ORDER BY id FETCH FIRST 101 ROWS ONLY",
+                i -> orderRepository.findSummariesByCustomerIdAndIdGreaterThanOrderByIdAsc(
+                        (long) (i * 7919 % CUSTOMERS), 0L, Limit.of(101))));
+        micros.put("orders by customer, status", measure(
+                "SELECT * FROM orders WHERE customer_id = 4242 AND status = 'PAID'",
+                i -> orderRepository.findByCustomerIdAndStatus((long) (i * 7919 % CUSTOMERS), OrderStatus.PAID)));
+        micros.put("orders by status, page", measure(
+                "SELECT * FROM orders WHERE status = 'PAID' AND id > 0 ORDER BY id FETCH FIRST 101 ROWS ONLY",
+                i -> orderRepository.findSummariesByStatusAndIdGreaterThanOrderByIdAsc(
+                        OrderStatus.PAID, 0L, Limit.of(101))));
+        micros.put("orders by status, created", measure(
+                "SELECT COUNT(*) FROM orders WHERE status = 'PAID' AND created_at >= DATEADD('MINUTE', -10, CURRENT_TIMESTAMP)",
+                i -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE status = ? AND created_at >= ?",
+                        Long.class, "PAID", LocalDateTime.now().minusMinutes(10))));
+        micros.put("valid coupons", measure(
+                "SELECT * FROM coupons WHERE active = TRUE AND used_count < max_uses " +
+                        "AND valid_from <= CURRENT_TIMESTAMP AND valid_until >= CURRENT_TIMESTAMP",
+                i -> assertFalse(couponRepository.findAllValidCoupons(LocalDateTime.now()).isEmpty())));
+        micros.put("valid coupons, in memory", measure(
+                "SELECT * FROM coupons WHERE active = TRUE AND used_count < max_uses " +
+                        "AND valid_from <= CURRENT_TIMESTAMP AND valid_until >= CURRENT_TIMESTAMP",
+                i -> assertFalse(validCouponIndex.validCoupons().isEmpty())));
+        return micros;
+    }
+
+    private double measure(String explainedSql, IntConsumer lookup) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + explainedSql, String.class);
+        System.out.println(String.join("\n", plan).replaceAll("\\s+", " "));
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            lookup.accept(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            lookup.accept(i);
+        }
+        return (System.nanoTime() - start) / 1e3 / ITERATIONS;
+    }
+}
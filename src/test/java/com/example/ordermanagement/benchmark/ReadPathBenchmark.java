@@ -0,0 +1,98 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.BulkOrderService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the same customer order lookup run in a read-write transaction (the previous
+ * class-level default) with a read-only one, which runs with flush mode MANUAL and skips the
+ * dirty-checking snapshot of every loaded entity.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.ordermanagement=WARN"
+})
+class ReadPathBenchmark {
+
+    private static final long CUSTOMER_ID = 77_777L;
+    private static final int ORDERS_PER_CUSTOMER = 200;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Read-only vs read-write transaction for a customer order lookup")
+    void compareReadOnlyWithReadWrite() {
+        seedOrders();
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        run(readWrite, WARMUP_ITERATIONS);
+        run(readOnly, WARMUP_ITERATIONS);
+
+        report("read-write", measure(readWrite));
+        report("read-only", measure(readOnly));
+    }
+
+    private void seedOrders() {
+        List<Order> orders = new ArrayList<>(ORDERS_PER_CUSTOMER);
+        for (int i = 0; i < ORDERS_PER_CUSTOMER; i++) {
+            Order order = new Order();
+            order.setName("Read benchmark order " + i);
+            order.setOriginalAmount(new BigDecimal("120.00"));
+            order.setFinalAmount(new BigDecimal("100.00"));
+            order.setCustomerId(CUSTOMER_ID);
+            orders.add(order);
+        }
+        assertTrue(bulkOrderService.createOrders(orders).stream().allMatch(result -> result.error() == null));
+    }
+
+    private void run(TransactionTemplate template, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            List<Order> orders = template.execute(status -> orderRepository.findByCustomerId(CUSTOMER_ID));
+            assertEquals(ORDERS_PER_CUSTOMER, orders.size());
+        }
+    }
+
+    private long[] measure(TransactionTemplate template) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run(template, MEASURED_ITERATIONS);
+        long nanos = System.nanoTime() - start;
+        return new long[]{nanos, threads.getThreadAllocatedBytes(threadId) - allocatedBefore};
+    }
+
+    private static void report(String mode, long[] result) {
+        System.out.printf("%-10s %,8.1f us/op %,10d bytes/op%n",
+                mode, result[0] / 1e3 / MEASURED_ITERATIONS, result[1] / MEASURED_ITERATIONS);
+    }
+}
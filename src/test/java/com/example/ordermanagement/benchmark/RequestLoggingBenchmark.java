@@ -0,0 +1,181 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestClassOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the same mix of order and coupon requests through MockMvc, first with the default
+ * logging (synchronous console, DEBUG application logs, SQL logging) and then with the
+ * {@code prod} logging (asynchronous key=value appender, sampled INFO logging), and prints the
+ * latency and the bytes allocated by the request thread per request. A last run under the
+ * {@code prod} profile with logging turned off gives the floor: what is left is the cost of
+ * serving the requests themselves (MockMvc, Jackson, Hibernate), which no logging setting can
+ * remove. MockMvc's result printing is turned off, as it renders every exchange in case a test
+ * fails and would otherwise be the largest allocation of all. Requests run on the test thread,
+ * so network cost does not blur the difference. The runs share one JVM, so later runs profit
+ * from earlier warm-up; compare latencies by running one nested class per JVM, e.g.
+ * {@code -Dtest='RequestLoggingBenchmark$LoggingOff'}.
+ * Run with {@code mvn test -Pbenchmark -Dtest=RequestLoggingBenchmark}.
+ */
+@Tag("benchmark")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class RequestLoggingBenchmark {
+
+    private static final int WARMUP_REQUESTS = 3_000;
+    private static final int MEASURED_REQUESTS = 15_000;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final Map<String, double[]> RESULTS = new LinkedHashMap<>();
+
+    @AfterAll
+    static void report() {
+        System.out.printf("%n%-26s %9s %9s %9s %12s%n", "logging", "mean us", "p50 us", "p99 us", "bytes/req");
+        RESULTS.forEach((mode, result) -> System.out.printf("%-26s %,9.1f %,9.1f %,9.1f %,12.0f%n",
+                mode, result[0], result[1], result[2], result[3]));
+    }
+
+    @Nested
+    @Order(1)
+    @SpringBootTest
+    @AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+    @DirtiesContext
+    @DisplayName("Default logging")
+    class DefaultLogging {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Test
+        @DisplayName("Request latency with synchronous DEBUG console logging")
+        void measure() throws Exception {
+            RESULTS.put("sync console, DEBUG", run(mockMvc, couponRepository));
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @SpringBootTest
+    @ActiveProfiles("prod")
+    @AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+    @DirtiesContext
+    @DisplayName("Production logging")
+    class ProductionLogging {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Test
+        @DisplayName("Request latency with asynchronous, sampled key=value logging")
+        void measure() throws Exception {
+            RESULTS.put("async key=value, sampled", run(mockMvc, couponRepository));
+        }
+    }
+
+    @Nested
+    @Order(3)
+    @SpringBootTest(properties = {"logging.level.root=OFF", "logging.level.org.springframework=OFF",
+            "logging.level.com.example.ordermanagement=OFF"})
+    @ActiveProfiles("prod")
+    @AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+    @DirtiesContext
+    @DisplayName("Logging off")
+    class LoggingOff {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Test
+        @DisplayName("Request latency without any logging, as the floor")
+        void measure() throws Exception {
+            RESULTS.put("off (floor)", run(mockMvc, couponRepository));
+        }
+    }
+
+    private static double[] run(MockMvc mockMvc, CouponRepository couponRepository) throws Exception {
+        Coupon coupon = new Coupon();
+        coupon.setCode("LOGBENCH");
+        coupon.setType(CouponType.PERCENTAGE);
+        coupon.setValue(new BigDecimal("10.00"));
+        coupon.setMinOrderAmount(BigDecimal.ZERO);
+        coupon.setMaxUses(Integer.MAX_VALUE);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponRepository.save(coupon);
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            mockMvc.perform(request(i)).andExpect(status().is2xxSuccessful());
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Histogram latencies = new Histogram(MAX_LATENCY_NANOS, 3);
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            long start = System.nanoTime();
+            mockMvc.perform(request(i)).andExpect(status().is2xxSuccessful());
+            latencies.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertEquals(MEASURED_REQUESTS, latencies.getTotalCount());
+        return new double[]{
+                latencies.getMean() / 1e3,
+                latencies.getValueAtPercentile(50) / 1e3,
+                latencies.getValueAtPercentile(99) / 1e3,
+                (double) allocated / MEASURED_REQUESTS};
+    }
+
+    private static RequestBuilder request(int i) {
+        return switch (i % 3) {
+            case 0 -> post("/api/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"Logging benchmark order\",\"originalAmount\":120.00," +
+                            "\"finalAmount\":100.00,\"customerId\":" + (i % 100 + 1) + "}");
+            case 1 -> get("/api/orders/customer/" + (i % 100 + 1)).param("size", "20");
+            default -> post("/api/coupons/calculate-discount")
+                    .param("code", "LOGBENCH")
+                    .param("orderAmount", "150.00");
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.repository.CouponRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestClassOrder;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the checkout load at high concurrency against the default Tomcat platform-thread pool
+ * and then with the {@code virtual-threads} profile, and prints throughput, p99 latency, peak
+ * heap and peak platform threads of both; results are written to
+ * {@code target/threading-load-result.json}. The virtual-thread run needs Java 21 and is
+ * skipped on older runtimes.
+ * <p>
+ * Run with {@code mvn test -Pjava21,benchmark -Dtest=ThreadingModelLoadBenchmark -Dload.concurrency=512}.
+ */
+@Tag("benchmark")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class ThreadingModelLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+
+    private static final Map<String, Map<String, Object>> RESULTS = new LinkedHashMap<>();
+
+    @AfterAll
+    static void report() throws IOException {
+        System.out.printf("%n%-18s %9s %9s %7s %12s %12s%n",
+                "threads", "req/s", "p99 ms", "err %", "peak heap MB", "peak threads");
+        RESULTS.forEach((mode, result) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> total = (Map<String, Object>) result.get("total");
+            System.out.printf("%-18s %,9.0f %9.2f %7.2f %,12d %12d%n", mode, total.get("throughput"),
+                    total.get("p99Millis"), 100 * (double) total.get("errorRate"),
+                    result.get("peakHeapUsedMb"), result.get("peakPlatformThreads"));
+        });
+        File out = new File("target/threading-load-result.json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, RESULTS);
+        System.out.println("Results written to " + out.getAbsolutePath());
+    }
+
+    @Nested
+    @Order(1)
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.jpa.show-sql=false",
+            "logging.level.com.example.ordermanagement=WARN"
+    })
+    @DirtiesContext
+    @DisplayName("Platform threads")
+    class PlatformThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("Checkout load on the Tomcat platform-thread pool")
+        void runLoad() throws Exception {
+            RESULTS.put("platform", new CheckoutLoad(port, couponRepository, objectMapper)
+                    .run(CONCURRENCY, WARMUP, DURATION));
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.jpa.show-sql=false",
+            "logging.level.com.example.ordermanagement=WARN"
+    })
+    @ActiveProfiles("virtual-threads")
+    @DirtiesContext
+    @DisplayName("Virtual threads")
+    class VirtualThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private CouponRepository couponRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("Checkout load with requests served on virtual threads")
+        void runLoad() throws Exception {
+            RESULTS.put("virtual", new CheckoutLoad(port, couponRepository, objectMapper)
+                    .run(CONCURRENCY, WARMUP, DURATION));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.ordermanagement.config;
+
+import com.example.ordermanagement.repository.IdempotencyRecordRepository;
+import com.example.ordermanagement.service.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            new IdempotencyStore(mock(IdempotencyRecordRepository.class), meterRegistry,
+                    DataSize.ofMegabytes(1), Duration.ofHours(1), false),
+            new ObjectMapper().findAndRegisterModules(), meterRegistry);
+
+    private final List<String> handledBodies = new ArrayList<>();
+
+    // Stands in for the controller: echoes the request body as a created resource
+    private final FilterChain createOrder = (request, response) -> {
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        handledBodies.add(body);
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(201);
+        httpResponse.setContentType("application/json");
+        httpResponse.setHeader("Location", "/api/orders/" + handledBodies.size());
+        httpResponse.getOutputStream().write(("{\"order\":" + body + "}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    private static MockHttpServletRequest request(String method, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/orders");
+        if (key != null) {
+            request.addHeader("Idempotency-Key", key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain)
+            throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.get("idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should answer a retry with the stored response without running the request again")
+    void shouldReplayRetry() throws Exception {
+        MockHttpServletResponse first = send(request("POST", "key-1", "{\"a\":1}"), createOrder);
+        MockHttpServletResponse retry = send(request("POST", "key-1", "{\"a\":1}"), createOrder);
+
+        assertEquals(List.of("{\"a\":1}"), handledBodies);
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader("Idempotent-Replayed"));
+        assertEquals(201, retry.getStatus());
+        assertEquals("true", retry.getHeader("Idempotent-Replayed"));
+        assertEquals("/api/orders/1", retry.getHeader("Location"));
+        assertEquals("application/json", retry.getContentType());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals(1, outcomes("executed"));
+        assertEquals(1, outcomes("replayed"));
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request")
+    void shouldRefuseReusedKey() throws Exception {
+        send(request("POST", "key-1", "{\"a\":1}"), createOrder);
+
+        MockHttpServletResponse other = send(request("POST", "key-1", "{\"a\":2}"), createOrder);
+
+        assertEquals(422, other.getStatus());
+        assertTrue(other.getContentAsString().contains("already used for a different request"));
+        assertEquals(1, handledBodies.size());
+    }
+
+    @Test
+    @DisplayName("Should refuse a retry while the first request is still running")
+    void shouldRefuseConcurrentRetry() throws Exception {
+        List<Integer> retryStatuses = new ArrayList<>();
+        FilterChain retriedWhileRunning = (request, response) -> {
+            retryStatuses.add(send(request("POST", "key-1", "{\"a\":1}"), createOrder).getStatus());
+            createOrder.doFilter(request, response);
+        };
+
+        MockHttpServletResponse first = send(request("POST", "key-1", "{\"a\":1}"), retriedWhileRunning);
+
+        assertEquals(List.of(409), retryStatuses);
+        assertEquals(201, first.getStatus());
+        assertEquals(1, handledBodies.size());
+    }
+
+    @Test
+    @DisplayName("Should run the request again after a server error")
+    void shouldNotStoreServerErrors() throws Exception {
+        FilterChain failing = (request, response) -> ((HttpServletResponse) response).setStatus(500);
+
+        assertEquals(500, send(request("POST", "key-1", "{\"a\":1}"), failing).getStatus());
+        assertEquals(201, send(request("POST", "key-1", "{\"a\":1}"), createOrder).getStatus());
+
+        assertEquals(1, handledBodies.size());
+    }
+
+    @Test
+    @DisplayName("Should run the request again after a conflict or throttling response")
+    void shouldNotStoreTransientErrors() throws Exception {
+        FilterChain conflicting = (request, response) -> ((HttpServletResponse) response).setStatus(409);
+        FilterChain throttled = (request, response) -> ((HttpServletResponse) response).setStatus(429);
+
+        assertEquals(409, send(request("POST", "key-1", "{\"a\":1}"), conflicting).getStatus());
+        assertEquals(429, send(request("POST", "key-1", "{\"a\":1}"), throttled).getStatus());
+        assertEquals(201, send(request("POST", "key-1", "{\"a\":1}"), createOrder).getStatus());
+
+        assertEquals(1, handledBodies.size());
+        assertEquals(3, outcomes("executed"));
+    }
+
+    @Test
+    @DisplayName("Should pass through reads and requests without a key")
+    void shouldIgnoreUnkeyedAndReadRequests() throws Exception {
+        send(request("POST", null, "{\"a\":1}"), createOrder);
+        send(request("POST", null, "{\"a\":1}"), createOrder);
+        send(request("GET", "key-1", ""), createOrder);
+        send(request("GET", "key-1", ""), createOrder);
+
+        assertEquals(4, handledBodies.size());
+        assertEquals(0, outcomes("executed"));
+    }
+
+    @Test
+    @DisplayName("Should refuse non-blocking reads of the buffered request body")
+    void shouldRefuseReadListener() throws Exception {
+        List<String> messages = new ArrayList<>();
+        FilterChain nonBlocking = (request, response) -> messages.add(assertThrows(IllegalStateException.class,
+                () -> request.getInputStream().setReadListener(null)).getMessage());
+
+        send(request("POST", "key-1", "{\"a\":1}"), nonBlocking);
+
+        assertEquals(List.of("Non-blocking reads are not supported on a request body buffered for its idempotency key"),
+                messages);
+    }
+
+    @Test
+    @DisplayName("Should refuse keys longer than 255 characters")
+    void shouldRefuseLongKey() throws Exception {
+        assertEquals(400, send(request("POST", "k".repeat(256), "{}"), createOrder).getStatus());
+        assertTrue(handledBodies.isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ordermanagement.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLoggingFilterTest {
+
+    private final SampledLoggingTurboFilter turboFilter = new SampledLoggingTurboFilter();
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    private Map<String, String> mdcDuringRequest(double infoSampleRate, MockHttpServletRequest request) throws Exception {
+        Map<String, String> seen = new HashMap<>();
+        new RequestLoggingFilter(infoSampleRate).doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> seen.putAll(MDC.getCopyOfContextMap()));
+        return seen;
+    }
+
+    private FilterReply decide(Level level) {
+        return turboFilter.decide(null, new LoggerContext().getLogger("test"), level, "message", null, null);
+    }
+
+    @Test
+    @DisplayName("Should use the X-Request-Id header as request id and clear the MDC afterwards")
+    void shouldUseRequestIdHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Request-Id", "abc-123");
+
+        Map<String, String> mdc = mdcDuringRequest(1.0, request);
+
+        assertEquals("abc-123", mdc.get("requestId"));
+        assertFalse(mdc.containsKey("sampled"));
+        assertNull(MDC.get("requestId"));
+    }
+
+    @Test
+    @DisplayName("Should generate a request id when the header is missing")
+    void shouldGenerateRequestId() throws Exception {
+        Map<String, String> mdc = mdcDuringRequest(1.0, new MockHttpServletRequest());
+
+        assertNotNull(mdc.get("requestId"));
+        assertFalse(mdc.get("requestId").isBlank());
+    }
+
+    @Test
+    @DisplayName("Should mark requests as not sampled when the sample rate is zero")
+    void shouldMarkUnsampledRequests() throws Exception {
+        Map<String, String> mdc = mdcDuringRequest(0.0, new MockHttpServletRequest());
+
+        assertEquals("false", mdc.get("sampled"));
+        assertNull(MDC.get("sampled"));
+    }
+
+    @Test
+    @DisplayName("Should drop only events below WARN on unsampled requests")
+    void shouldDropBelowWarnWhenUnsampled() {
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO));
+
+        MDC.put("sampled", "false");
+
+        assertEquals(FilterReply.DENY, decide(Level.INFO));
+        assertEquals(FilterReply.DENY, decide(Level.DEBUG));
+        assertEquals(FilterReply.NEUTRAL, decide(Level.WARN));
+        assertEquals(FilterReply.NEUTRAL, decide(Level.ERROR));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CouponRedemptionConcurrencyTest {
+
+    private static final int MAX_USES = 50;
+    private static final int REQUESTS = 400;
+    private static final int THREADS = 64;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Test
+    @DisplayName("Should never redeem a coupon more than maxUses times under concurrent PATCH calls")
+    void shouldNotOversellUnderConcurrentRedemptions() throws Exception {
+        Coupon coupon = new Coupon();
+        coupon.setCode("STRESS01");
+        coupon.setType(CouponType.PERCENTAGE);
+        coupon.setValue(new BigDecimal("10.00"));
+        coupon.setMinOrderAmount(BigDecimal.ZERO);
+        coupon.setMaxUses(MAX_USES);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+        Long couponId = couponRepository.save(coupon).getId();
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/coupons/code/STRESS01/use"))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Integer> response : responses) {
+                if (response.get(60, TimeUnit.SECONDS) == 200) {
+                    succeeded++;
+                }
+            }
+
+            assertEquals(MAX_USES, succeeded);
+            assertEquals(MAX_USES, couponRepository.findById(couponId).orElseThrow().getUsedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
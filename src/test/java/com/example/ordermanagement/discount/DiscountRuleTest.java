@@ -0,0 +1,177 @@
+package com.example.ordermanagement.discount;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.entity.DiscountTier;
+import com.example.ordermanagement.entity.DiscountTiersConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountRuleTest {
+
+    private static Coupon coupon(CouponType type, String value, String minOrderAmount) {
+        Coupon coupon = new Coupon();
+        coupon.setCode("RULES001");
+        coupon.setType(type);
+        coupon.setValue(new BigDecimal(value));
+        coupon.setMinOrderAmount(new BigDecimal(minOrderAmount));
+        coupon.setMaxUses(100);
+        coupon.setUsedCount(0);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+        coupon.setActive(true);
+        return coupon;
+    }
+
+    private static DiscountTier tier(String minOrderAmount, String percent) {
+        return new DiscountTier(new BigDecimal(minOrderAmount), new BigDecimal(percent));
+    }
+
+    @Nested
+    @DisplayName("Compilation Tests")
+    class CompilationTests {
+
+        @Test
+        @DisplayName("Should compile each coupon type to its rule in cents")
+        void shouldCompileEachType() {
+            assertEquals(new FixedDiscount(10_000, 5_000), coupon(CouponType.FIXED, "50.00", "100").discountRule());
+            assertEquals(new PercentageDiscount(1_750), coupon(CouponType.PERCENTAGE, "17.5", "0").discountRule());
+
+            Coupon capped = coupon(CouponType.CAPPED_PERCENTAGE, "20", "30.00");
+            capped.setMaxDiscountAmount(new BigDecimal("25.00"));
+            assertEquals(new CappedPercentageDiscount(3_000, 2_000, 2_500), capped.discountRule());
+
+            Coupon tiered = coupon(CouponType.TIERED, "5", "50.00");
+            tiered.setTiers(List.of(tier("200.00", "15"), tier("100.00", "10")));
+            assertEquals(new TieredDiscount(new long[]{5_000, 10_000, 20_000}, new long[]{500, 1_000, 1_500}),
+                    tiered.discountRule());
+        }
+
+        @Test
+        @DisplayName("Should wrap the rule of a coupon restricted to one customer")
+        void shouldRestrictToCustomer() {
+            Coupon coupon = coupon(CouponType.FIXED, "5.00", "0");
+            coupon.setCustomerId(42L);
+
+            assertEquals(new CustomerDiscount(42L, new FixedDiscount(0, 500)), coupon.discountRule());
+        }
+
+        @Test
+        @DisplayName("Should compile once and again only after a setting is replaced")
+        void shouldRecompileOnlyOnChange() {
+            Coupon coupon = coupon(CouponType.PERCENTAGE, "10", "0");
+            DiscountRule rule = coupon.discountRule();
+
+            coupon.setUsedCount(5);
+            assertSame(rule, coupon.discountRule());
+
+            coupon.setType(CouponType.CAPPED_PERCENTAGE);
+            coupon.setMaxDiscountAmount(new BigDecimal("3.00"));
+            assertEquals(new CappedPercentageDiscount(0, 1_000, 300), coupon.discountRule());
+        }
+
+        @Test
+        @DisplayName("Should reject settings that do not make a valid discount")
+        void shouldRejectInvalidSettings() {
+            assertEquals("Percentage discount cannot exceed 50%", assertThrows(IllegalArgumentException.class,
+                    () -> coupon(CouponType.PERCENTAGE, "50.01", "0").discountRule()).getMessage());
+
+            Coupon uncapped = coupon(CouponType.CAPPED_PERCENTAGE, "10", "0");
+            assertThrows(IllegalArgumentException.class, uncapped::discountRule);
+
+            Coupon tierless = coupon(CouponType.TIERED, "10", "0");
+            assertThrows(IllegalArgumentException.class, tierless::discountRule);
+
+            Coupon steepTier = coupon(CouponType.TIERED, "10", "0");
+            steepTier.setTiers(List.of(tier("100", "60")));
+            assertThrows(IllegalArgumentException.class, steepTier::discountRule);
+
+            Coupon tierBelowMinimum = coupon(CouponType.TIERED, "10", "100");
+            tierBelowMinimum.setTiers(List.of(tier("100", "20")));
+            assertThrows(IllegalArgumentException.class, tierBelowMinimum::discountRule);
+
+            assertThrows(IllegalArgumentException.class, () -> coupon(CouponType.FIXED, "9.999", "0").discountRule());
+        }
+    }
+
+    @Nested
+    @DisplayName("Evaluation Tests")
+    class EvaluationTests {
+
+        @Test
+        @DisplayName("Should cap a percentage discount and enforce its minimum")
+        void shouldCapPercentage() {
+            DiscountRule rule = new CappedPercentageDiscount(3_000, 2_000, 2_500);
+
+            assertEquals(DiscountRule.BELOW_MINIMUM, rule.discountCents(2_999, null));
+            assertEquals(600, rule.discountCents(3_000, null));
+            assertEquals(2_500, rule.discountCents(12_501, null));
+            assertEquals(2_500, rule.discountCents(DiscountRule.MAX_ORDER_CENTS, null));
+        }
+
+        @Test
+        @DisplayName("Should apply the percentage of the highest tier reached")
+        void shouldPickTier() {
+            DiscountRule rule = new TieredDiscount(new long[]{5_000, 10_000, 20_000}, new long[]{500, 1_000, 1_500});
+
+            assertEquals(DiscountRule.BELOW_MINIMUM, rule.discountCents(4_999, null));
+            assertEquals(250, rule.discountCents(5_000, null));
+            assertEquals(500, rule.discountCents(9_999, null));
+            assertEquals(1_000, rule.discountCents(10_000, null));
+            assertEquals(3_000, rule.discountCents(20_000, null));
+            assertEquals(15_000_000_000_000L, rule.discountCents(DiscountRule.MAX_ORDER_CENTS, null));
+        }
+
+        @Test
+        @DisplayName("Should cap a fixed discount at the order amount")
+        void shouldCapFixedAtOrderAmount() {
+            DiscountRule rule = new FixedDiscount(0, 5_000);
+
+            assertEquals(1_234, rule.discountCents(1_234, null));
+            assertEquals(0, rule.discountCents(0, null));
+        }
+
+        @Test
+        @DisplayName("Should price fractions of a cent on the unrounded amount")
+        void shouldPriceSubCentAmounts() {
+            DiscountRule tiered = new TieredDiscount(new long[]{5_000, 10_000}, new long[]{500, 1_000});
+            DiscountRule capped = new CappedPercentageDiscount(0, 5_000, 2_500);
+
+            assertEquals(new BigDecimal("5.00"), tiered.subCentDiscount(new BigDecimal("99.995"), 9_999));
+            assertEquals(new BigDecimal("10.00"), tiered.subCentDiscount(new BigDecimal("100.005"), 10_000));
+            assertEquals(new BigDecimal("0.00"), capped.subCentDiscount(new BigDecimal("0.009"), 0));
+            assertEquals(new BigDecimal("25.00"), capped.subCentDiscount(new BigDecimal("50.005"), 5_000));
+            assertEquals(new BigDecimal("12.345"), new FixedDiscount(0, 5_000).subCentDiscount(new BigDecimal("12.345"), 1_234));
+        }
+
+        @Test
+        @DisplayName("Should only price orders of the coupon's customer")
+        void shouldRestrictToCustomer() {
+            DiscountRule rule = new CustomerDiscount(1_000L, new FixedDiscount(0, 500));
+
+            assertEquals(500, rule.discountCents(10_000, 1_000L));
+            assertEquals(DiscountRule.OTHER_CUSTOMER, rule.discountCents(10_000, 1_001L));
+            assertEquals(DiscountRule.OTHER_CUSTOMER, rule.discountCents(10_000, null));
+        }
+    }
+
+    @Test
+    @DisplayName("Should store tiers in one column and read them back")
+    void shouldRoundTripTiers() {
+        DiscountTiersConverter converter = new DiscountTiersConverter();
+        List<DiscountTier> tiers = List.of(tier("100.00", "5.00"), tier("250.00", "12.50"));
+
+        String column = converter.convertToDatabaseColumn(tiers);
+
+        assertEquals("100.00:5.00;250.00:12.50", column);
+        assertEquals(tiers, converter.convertToEntityAttribute(column));
+        assertNull(converter.convertToDatabaseColumn(List.of()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.BulkOrderResult;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOrderServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    private BulkOrderService bulkOrderService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        bulkOrderService = new BulkOrderService(entityManager,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(PlatformTransactionManager.class), new OrderMetrics(new SimpleMeterRegistry()), 2, 5);
+    }
+
+    private void givenInsertsSucceed() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        doAnswer(invocation -> {
+            invocation.<Order>getArgument(0).setId(ids.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any(Order.class));
+    }
+
+    private Order validOrder() {
+        Order order = new Order();
+        order.setName("Bulk Order");
+        order.setOriginalAmount(new BigDecimal("100.00"));
+        order.setFinalAmount(new BigDecimal("90.00"));
+        order.setCustomerId(1001L);
+        return order;
+    }
+
+    @Test
+    @DisplayName("Should create valid orders in batches and reject invalid ones")
+    void shouldCreateValidOrdersAndRejectInvalidOnes() {
+        givenInsertsSucceed();
+        Order invalid = validOrder();
+        invalid.setName("");
+        List<Order> orders = Arrays.asList(validOrder(), invalid, validOrder(), null, validOrder());
+
+        List<BulkOrderResult> results = bulkOrderService.createOrders(orders);
+
+        assertEquals(5, results.size());
+        assertNotNull(results.get(0).id());
+        assertTrue(results.get(1).error().startsWith("name:"));
+        assertNotNull(results.get(2).id());
+        assertEquals("Order is required", results.get(3).error());
+        assertNotNull(results.get(4).id());
+        assertEquals(OrderStatus.CREATED, orders.get(4).getStatus());
+        verify(entityManager, times(2)).flush();
+        verify(session, times(2)).setJdbcBatchSize(2);
+    }
+
+    @Test
+    @DisplayName("Should reject only the batch whose insert fails")
+    void shouldRejectOnlyTheFailedBatch() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        doNothing().doThrow(new PersistenceException("constraint violated")).when(entityManager).flush();
+
+        List<BulkOrderResult> results = bulkOrderService.createOrders(
+                List.of(validOrder(), validOrder(), validOrder()));
+
+        assertNull(results.get(0).error());
+        assertNull(results.get(1).error());
+        assertTrue(results.get(2).error().contains("constraint violated"));
+    }
+
+    @Test
+    @DisplayName("Should refuse requests larger than the configured maximum")
+    void shouldRefuseOversizedRequests() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            orders.add(validOrder());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bulkOrderService.createOrders(orders));
+        verifyNoInteractions(entityManager);
+    }
+}
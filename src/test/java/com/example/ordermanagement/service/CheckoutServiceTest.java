@@ -0,0 +1,178 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CheckoutRequest;
+import com.example.ordermanagement.dto.CheckoutResult;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutServiceTest {
+
+    private static final String KEY = "3f1c9a52-checkout";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CouponService couponService;
+
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() {
+        checkoutService = new CheckoutService(orderRepository, couponService,
+                new OrderMetrics(new SimpleMeterRegistry()), mock(PlatformTransactionManager.class));
+    }
+
+    private static CheckoutRequest request(String couponCode) {
+        return new CheckoutRequest("Test Order", new BigDecimal("100.00"), 1001L, couponCode);
+    }
+
+    private void givenOrderSaved() {
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+    }
+
+    private static Order placedOrder(String couponCode) {
+        Order order = new Order();
+        order.setId(1L);
+        order.setOriginalAmount(new BigDecimal("100.00"));
+        order.setFinalAmount(new BigDecimal("90.00"));
+        order.setCustomerId(1001L);
+        order.setCouponCode(couponCode);
+        order.setIdempotencyKey(KEY);
+        return order;
+    }
+
+    @Nested
+    @DisplayName("Checkout Tests")
+    class CheckoutTests {
+
+        @Test
+        @DisplayName("Should place the order at the server computed amount, then redeem the coupon")
+        void shouldPlaceOrderAndRedeemCoupon() {
+            when(couponService.calculateDiscount("SAVE10", new BigDecimal("100.00"), 1001L))
+                    .thenReturn(new BigDecimal("10.00"));
+            givenOrderSaved();
+
+            CheckoutResult result = checkoutService.checkout(request("SAVE10"), KEY);
+
+            assertFalse(result.replayed());
+            assertEquals(new BigDecimal("90.00"), result.order().getFinalAmount());
+            assertEquals("SAVE10", result.order().getCouponCode());
+            assertEquals(KEY, result.order().getIdempotencyKey());
+            InOrder savedThenRedeemed = inOrder(orderRepository, couponService);
+            savedThenRedeemed.verify(orderRepository).saveAndFlush(any(Order.class));
+            savedThenRedeemed.verify(couponService).incrementUsedCountByCode("SAVE10");
+        }
+
+        @Test
+        @DisplayName("Should place an order without coupon at its original amount")
+        void shouldPlaceOrderWithoutCoupon() {
+            givenOrderSaved();
+
+            CheckoutResult result = checkoutService.checkout(request(null), null);
+
+            assertEquals(new BigDecimal("100.00"), result.order().getFinalAmount());
+            verify(orderRepository, never()).findByIdempotencyKey(any());
+            verifyNoInteractions(couponService);
+        }
+
+        @Test
+        @DisplayName("Should refuse a discount that leaves nothing to pay")
+        void shouldRefuseFreeOrder() {
+            when(couponService.calculateDiscount("FREE", new BigDecimal("100.00"), 1001L))
+                    .thenReturn(new BigDecimal("100.00"));
+
+            assertThrows(IllegalStateException.class, () -> checkoutService.checkout(request("FREE"), KEY));
+
+            verify(orderRepository, never()).saveAndFlush(any());
+            verify(couponService, never()).incrementUsedCountByCode(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Idempotency Tests")
+    class IdempotencyTests {
+
+        @Test
+        @DisplayName("Should return the order already placed under the key without redeeming again")
+        void shouldReplayPlacedOrder() {
+            Order placed = placedOrder("SAVE10");
+            when(orderRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.of(placed));
+
+            CheckoutResult result = checkoutService.checkout(request("SAVE10"), KEY);
+
+            assertTrue(result.replayed());
+            assertSame(placed, result.order());
+            verify(orderRepository, never()).saveAndFlush(any());
+            verifyNoInteractions(couponService);
+        }
+
+        @Test
+        @DisplayName("Should replay the order of a concurrent retry that committed first")
+        void shouldReplayConcurrentRetry() {
+            Order placed = placedOrder(null);
+            when(orderRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty(), Optional.of(placed));
+            when(orderRepository.saveAndFlush(any(Order.class))).thenThrow(new DataIntegrityViolationException("key"));
+
+            CheckoutResult result = checkoutService.checkout(request(null), KEY);
+
+            assertTrue(result.replayed());
+            assertSame(placed, result.order());
+        }
+
+        @Test
+        @DisplayName("Should replay a concurrent retry that used up the coupon first")
+        void shouldReplayRetryThatExhaustedCoupon() {
+            Order placed = placedOrder("SAVE10");
+            when(orderRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty(), Optional.of(placed));
+            when(couponService.calculateDiscount("SAVE10", new BigDecimal("100.00"), 1001L))
+                    .thenThrow(new IllegalStateException("Coupon is not valid"));
+
+            assertTrue(checkoutService.checkout(request("SAVE10"), KEY).replayed());
+        }
+
+        @Test
+        @DisplayName("Should rethrow a failure when no order was placed under the key")
+        void shouldRethrowWithoutPlacedOrder() {
+            when(orderRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+            when(couponService.calculateDiscount("SAVE10", new BigDecimal("100.00"), 1001L))
+                    .thenThrow(new IllegalStateException("Coupon is not valid"));
+
+            assertThrows(IllegalStateException.class, () -> checkoutService.checkout(request("SAVE10"), KEY));
+            verify(orderRepository, never()).saveAndFlush(any());
+        }
+
+        @Test
+        @DisplayName("Should refuse a key reused for a different checkout")
+        void shouldRefuseReusedKey() {
+            when(orderRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.of(placedOrder(null)));
+
+            assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(request("SAVE10"), KEY));
+            assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(request(null), "k".repeat(256)));
+            verifyNoInteractions(couponService);
+        }
+    }
+}
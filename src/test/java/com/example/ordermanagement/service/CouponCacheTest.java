@@ -0,0 +1,182 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponCacheTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    private CouponCache cache() {
+        return new CouponCache(couponRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    }
+
+    private static Coupon coupon(long version, int usedCount, boolean active) {
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setCode("CODE1");
+        coupon.setType(CouponType.FIXED);
+        coupon.setValue(new BigDecimal("10.00"));
+        coupon.setMinOrderAmount(BigDecimal.ZERO);
+        coupon.setMaxUses(10);
+        coupon.setUsedCount(usedCount);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+        coupon.setActive(active);
+        coupon.setVersion(version);
+        return coupon;
+    }
+
+    // Runs the action as if in a transaction and returns its synchronizations, not yet completed
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("findByCode")
+    class FindByCodeTests {
+
+        @Test
+        @DisplayName("Should load a miss once and serve it from the cache afterwards")
+        void shouldCacheLoadedCoupon() {
+            CouponCache cache = cache();
+            when(couponRepository.findByCode("CODE1")).thenReturn(Optional.of(coupon(0, 0, true)));
+
+            assertTrue(cache.findByCode("CODE1").isPresent());
+            assertTrue(cache.findByCode("CODE1").isPresent());
+
+            verify(couponRepository, times(1)).findByCode("CODE1");
+        }
+
+        @Test
+        @DisplayName("Should not replace a write committed during the load with the row read before it")
+        void shouldKeepWriteCommittedDuringLoad() {
+            CouponCache cache = cache();
+            when(couponRepository.findByCode("CODE1")).thenAnswer(invocation -> {
+                cache.put(coupon(1, 0, false));
+                return Optional.of(coupon(0, 0, true));
+            });
+
+            assertTrue(cache.findByCode("CODE1").orElseThrow().getActive());
+
+            assertFalse(cache.findCached("CODE1").orElseThrow().getActive());
+        }
+
+        @Test
+        @DisplayName("Should not cache a row whose coupon was evicted during the load")
+        void shouldNotCacheRowEvictedDuringLoad() {
+            CouponCache cache = cache();
+            when(couponRepository.findByCode("CODE1")).thenAnswer(invocation -> {
+                cache.evict("CODE1");
+                return Optional.of(coupon(0, 0, true));
+            });
+
+            cache.findByCode("CODE1");
+
+            assertTrue(cache.findCached("CODE1").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should hand out copies that do not change the cached coupon")
+        void shouldNotShareCachedInstance() {
+            CouponCache cache = cache();
+            cache.put(coupon(0, 0, true));
+
+            Coupon coupon = cache.findCached("CODE1").orElseThrow();
+            coupon.setActive(false);
+
+            assertNotSame(coupon, cache.findCached("CODE1").orElseThrow());
+            assertTrue(cache.findCached("CODE1").orElseThrow().getActive());
+        }
+    }
+
+    @Nested
+    @DisplayName("put")
+    class PutTests {
+
+        @Test
+        @DisplayName("Should keep the newest version when commits are applied out of order")
+        void shouldKeepNewestVersion() {
+            CouponCache cache = cache();
+            List<TransactionSynchronization> older = inTransaction(() -> cache.put(coupon(1, 0, true)));
+            List<TransactionSynchronization> newer = inTransaction(() -> cache.put(coupon(2, 0, false)));
+
+            newer.forEach(TransactionSynchronization::afterCommit);
+            older.forEach(TransactionSynchronization::afterCommit);
+
+            assertEquals(2L, cache.findCached("CODE1").orElseThrow().getVersion());
+        }
+
+        @Test
+        @DisplayName("Should not store a coupon whose transaction did not commit")
+        void shouldNotStoreBeforeCommit() {
+            CouponCache cache = cache();
+            inTransaction(() -> cache.put(coupon(1, 0, true)));
+
+            assertTrue(cache.findCached("CODE1").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should keep the highest usage count among puts of the same version")
+        void shouldKeepHighestUsedCount() {
+            CouponCache cache = cache();
+            List<TransactionSynchronization> first = inTransaction(() -> cache.put(coupon(0, 3, true)));
+            List<TransactionSynchronization> second = inTransaction(() -> cache.put(coupon(0, 5, true)));
+
+            second.forEach(TransactionSynchronization::afterCommit);
+            first.forEach(TransactionSynchronization::afterCommit);
+
+            assertEquals(5, cache.findCached("CODE1").orElseThrow().getUsedCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("findAllByCodes")
+    class FindAllByCodesTests {
+
+        @Test
+        @DisplayName("Should load only the codes missing from the cache")
+        void shouldLoadMissingCodes() {
+            CouponCache cache = cache();
+            cache.put(coupon(0, 0, true));
+            Coupon other = coupon(0, 0, true);
+            other.setId(2L);
+            other.setCode("CODE2");
+            when(couponRepository.findByCodeIn(Set.of("CODE2", "CODE3"))).thenReturn(List.of(other));
+
+            Map<String, Coupon> coupons = cache.findAllByCodes(Set.of("CODE1", "CODE2", "CODE3"));
+
+            assertEquals(Set.of("CODE1", "CODE2"), coupons.keySet());
+            assertTrue(cache.findCached("CODE2").isPresent());
+        }
+    }
+}
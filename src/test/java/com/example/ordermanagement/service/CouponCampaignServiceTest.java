@@ -0,0 +1,187 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponCampaignRequest;
+import com.example.ordermanagement.entity.CampaignStatus;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponCampaign;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponCampaignRepository;
+import com.example.ordermanagement.service.CouponCampaignService.CodeFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponCampaignServiceTest {
+
+    private static final String INSERT_PREFIX = "INSERT INTO coupons";
+
+    @Mock
+    private CouponCampaignRepository campaignRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ValidCouponIndex validCouponIndex;
+
+    private CouponCampaignService campaignService;
+
+    @BeforeEach
+    void setUp() {
+        campaignService = new CouponCampaignService(campaignRepository, jdbcTemplate,
+                new CouponCodeGenerator(new AtomicLong()::getAndIncrement, 1L, 100), new CouponValidator(), validCouponIndex,
+                mock(PlatformTransactionManager.class), new SyncTaskExecutor(), 2, 10);
+    }
+
+    private static CouponCampaignRequest request(int quantity, String percent) {
+        Coupon template = new Coupon();
+        template.setType(CouponType.PERCENTAGE);
+        template.setValue(new BigDecimal(percent));
+        template.setMinOrderAmount(BigDecimal.ZERO);
+        template.setMaxUses(1);
+        template.setValidFrom(LocalDateTime.now());
+        template.setValidUntil(LocalDateTime.now().plusDays(30));
+        return new CouponCampaignRequest("Spring sale", quantity, template);
+    }
+
+    private void givenCampaignSaved() {
+        when(campaignRepository.save(any(CouponCampaign.class))).thenAnswer(invocation -> {
+            CouponCampaign campaign = invocation.getArgument(0);
+            campaign.setId(7L);
+            return campaign;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> insertedBatches() {
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith(INSERT_PREFIX), batches.capture(), any(int[].class));
+        return batches.getAllValues();
+    }
+
+    private void verifyFinished(CampaignStatus status, String error) {
+        verify(jdbcTemplate).update(startsWith("UPDATE coupon_campaigns SET status"),
+                eq(status.name()), any(LocalDateTime.class), eq(error), eq(7L));
+    }
+
+    @Test
+    @DisplayName("Should mint the campaign in batches with distinct codes and track progress")
+    void shouldMintInBatches() {
+        givenCampaignSaved();
+
+        CouponCampaign campaign = campaignService.startCampaign(request(5, "15.00"));
+
+        assertEquals(CampaignStatus.RUNNING, campaign.getStatus());
+        List<List<Object[]>> batches = insertedBatches();
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+        Set<Object> codes = new HashSet<>();
+        batches.forEach(batch -> batch.forEach(row -> {
+            codes.add(row[0]);
+            assertEquals("PERCENTAGE", row[1]);
+            assertEquals(7L, row[12]);
+        }));
+        assertEquals(5, codes.size());
+        verify(jdbcTemplate, times(2)).update(startsWith("UPDATE coupon_campaigns SET minted"), eq(2), eq(7L));
+        verify(jdbcTemplate).update(startsWith("UPDATE coupon_campaigns SET minted"), eq(1), eq(7L));
+        InOrder reindexedThenFinished = inOrder(validCouponIndex, jdbcTemplate);
+        reindexedThenFinished.verify(validCouponIndex).refresh();
+        reindexedThenFinished.verify(jdbcTemplate).update(startsWith("UPDATE coupon_campaigns SET status"),
+                eq("COMPLETED"), any(LocalDateTime.class), isNull(), eq(7L));
+    }
+
+    @Test
+    @DisplayName("Should retry a batch that hits an existing code with fresh codes")
+    void shouldRetryDuplicateBatch() {
+        givenCampaignSaved();
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_PREFIX), anyList(), any(int[].class)))
+                .thenThrow(new DuplicateKeyException("code"))
+                .thenReturn(new int[]{1, 1});
+
+        campaignService.startCampaign(request(2, "15.00"));
+
+        List<List<Object[]>> attempts = insertedBatches();
+        assertEquals(2, attempts.size());
+        assertNotEquals(attempts.get(0).get(0)[0], attempts.get(1).get(0)[0]);
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE coupon_campaigns SET minted"), eq(2), eq(7L));
+        verifyFinished(CampaignStatus.COMPLETED, null);
+    }
+
+    @Test
+    @DisplayName("Should mark the campaign failed when a batch cannot be inserted")
+    void shouldFailCampaign() {
+        givenCampaignSaved();
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_PREFIX), anyList(), any(int[].class)))
+                .thenReturn(new int[]{1, 1})
+                .thenThrow(new IllegalStateException("disk full"));
+
+        campaignService.startCampaign(request(4, "15.00"));
+
+        verifyFinished(CampaignStatus.FAILED, "disk full");
+        verify(validCouponIndex).refresh();
+    }
+
+    @Test
+    @DisplayName("Should validate the template and quantity before starting")
+    void shouldRejectInvalidCampaigns() {
+        assertThrows(IllegalArgumentException.class, () -> campaignService.startCampaign(request(11, "15.00")));
+        assertThrows(IllegalArgumentException.class, () -> campaignService.startCampaign(request(5, "60.00")));
+
+        verifyNoInteractions(campaignRepository, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should fail campaigns left running by a previous run")
+    void shouldFailInterruptedCampaigns() {
+        campaignService.failInterruptedCampaigns();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE coupon_campaigns SET status = ?"), eq("FAILED"),
+                any(LocalDateTime.class), eq("Interrupted by a restart"), eq("RUNNING"));
+    }
+
+    @Test
+    @DisplayName("Should write minted codes as CSV or NDJSON")
+    void shouldWriteCodes() throws Exception {
+        doAnswer(invocation -> {
+            ResultSet row = mock(ResultSet.class);
+            when(row.getString(1)).thenReturn("AB12CD34", "ZZ99YY88");
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(row);
+            handler.processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        assertEquals(2, campaignService.writeCodes(7L, CodeFormat.CSV, csv));
+        assertEquals(2, campaignService.writeCodes(7L, CodeFormat.NDJSON, ndjson));
+        assertEquals("code\nAB12CD34\nZZ99YY88\n", csv.toString(StandardCharsets.UTF_8));
+        assertEquals("{\"code\":\"AB12CD34\"}\n{\"code\":\"ZZ99YY88\"}\n", ndjson.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.ordermanagement.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CouponCodeGeneratorTest {
+
+    private static final long KEY = 42L;
+
+    @Test
+    @DisplayName("Should mint distinct eight-character codes across blocks")
+    void shouldMintDistinctCodes() {
+        AtomicLong blocks = new AtomicLong();
+        CouponCodeGenerator generator = new CouponCodeGenerator(blocks::getAndIncrement, KEY, 1_000);
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            String code = generator.nextCode();
+            assertTrue(code.matches("[A-Z0-9]{8}"), code);
+            assertTrue(codes.add(code), () -> "Duplicate " + code);
+        }
+        assertEquals(200, blocks.get());
+    }
+
+    @Test
+    @DisplayName("Should permute the whole code space onto itself")
+    void shouldStayInsideCodeSpace() {
+        CouponCodeGenerator generator = new CouponCodeGenerator(() -> 0, KEY, 1);
+        long codeSpace = 2_821_109_907_456L;
+
+        for (long sequence : new long[]{0, 1, codeSpace / 2, codeSpace - 2, codeSpace - 1}) {
+            long code = generator.permute(sequence);
+            assertTrue(code >= 0 && code < codeSpace, () -> sequence + " -> " + code);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same codes for the same key and blocks only")
+    void shouldDependOnKey() {
+        List<String> first = mint(new CouponCodeGenerator(new AtomicLong(5)::getAndIncrement, KEY, 10), 20);
+        List<String> again = mint(new CouponCodeGenerator(new AtomicLong(5)::getAndIncrement, KEY, 10), 20);
+        List<String> otherKey = mint(new CouponCodeGenerator(new AtomicLong(5)::getAndIncrement, KEY + 1, 10), 20);
+
+        assertEquals(first, again);
+        assertNotEquals(first, otherKey);
+    }
+
+    @Test
+    @DisplayName("Should never hand out a code twice to concurrent callers")
+    void shouldMintDistinctCodesConcurrently() throws Exception {
+        AtomicLong blocks = new AtomicLong();
+        CouponCodeGenerator generator = new CouponCodeGenerator(blocks::getAndIncrement, KEY, 64);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        assertTrue(codes.add(generator.nextCode()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(160_000, codes.size());
+        assertEquals(2_500, blocks.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse blocks beyond the code space")
+    void shouldRefuseExhaustedSpace() {
+        CouponCodeGenerator generator = new CouponCodeGenerator(() -> 2_821_109_907_456L / 1_000, KEY, 1_000);
+
+        assertThrows(IllegalStateException.class, generator::nextCode);
+    }
+
+    @Test
+    @DisplayName("Should refuse to start without a configured key")
+    void shouldRequireKey() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        assertThrows(IllegalStateException.class, () -> new CouponCodeGenerator(jdbcTemplate, "", 1_000));
+        assertThrows(IllegalStateException.class, () -> new CouponCodeGenerator(jdbcTemplate, "not-a-key", 1_000));
+        assertDoesNotThrow(() -> new CouponCodeGenerator(jdbcTemplate, "-42", 1_000));
+    }
+
+    private static List<String> mint(CouponCodeGenerator generator, int count) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            codes.add(generator.nextCode());
+        }
+        return codes;
+    }
+}
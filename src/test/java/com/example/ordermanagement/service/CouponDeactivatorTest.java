@@ -0,0 +1,112 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponDeactivatorTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private ValidCouponIndex validCouponIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CouponCache couponCache;
+
+    private CouponDeactivator deactivator;
+
+    @BeforeEach
+    void setUp() {
+        couponCache = new CouponCache(couponRepository, meterRegistry, 100, Duration.ofMinutes(5));
+        deactivator = new CouponDeactivator(couponRepository, validCouponIndex, couponCache,
+                new CouponMetrics(meterRegistry), mock(PlatformTransactionManager.class), 2);
+    }
+
+    private static CouponView expired(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CouponView(id, "CODE" + id, CouponType.FIXED, BigDecimal.TEN, BigDecimal.ZERO,
+                null, null, null, 10, 0, now.minusDays(2), now.minusSeconds(1), true, false);
+    }
+
+    private double deactivatedCount() {
+        return meterRegistry.get("coupon.deactivated").counter().count();
+    }
+
+    @Test
+    @DisplayName("Should advance the index and deactivate the queued coupons in batches")
+    void shouldDeactivateQueuedCouponsInBatches() {
+        when(validCouponIndex.drainExpired()).thenReturn(List.of(expired(1), expired(2), expired(3)));
+        when(couponRepository.deactivateIfExpired(anyCollection(), any())).thenReturn(2, 1);
+
+        deactivator.deactivateExpired();
+
+        verify(validCouponIndex).tick();
+        verify(couponRepository).deactivateIfExpired(eq(List.of(1L, 2L)), any());
+        verify(couponRepository).deactivateIfExpired(eq(List.of(3L)), any());
+        assertEquals(3, deactivatedCount());
+    }
+
+    @Test
+    @DisplayName("Should not touch the database when nothing is queued")
+    void shouldSkipEmptyQueue() {
+        when(validCouponIndex.drainExpired()).thenReturn(List.of());
+
+        deactivator.deactivateExpired();
+
+        verify(couponRepository, never()).deactivateIfExpired(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should evict deactivated coupons from the cache")
+    void shouldEvictDeactivatedCoupons() {
+        Coupon cached = new Coupon();
+        cached.setId(1L);
+        cached.setCode("CODE1");
+        when(couponRepository.findByCode("CODE1")).thenReturn(Optional.of(cached));
+        couponCache.findByCode("CODE1");
+        when(validCouponIndex.drainExpired()).thenReturn(List.of(expired(1)));
+        when(couponRepository.deactivateIfExpired(anyCollection(), any())).thenReturn(1);
+
+        deactivator.deactivateExpired();
+
+        assertTrue(couponCache.findCached("CODE1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should sweep coupons the index has not seen")
+    void shouldSweepExpiredActiveCoupons() {
+        List<CouponView> leftovers = LongStream.rangeClosed(1, 5).mapToObj(CouponDeactivatorTest::expired).toList();
+        when(couponRepository.findAllExpiredActiveCoupons(any())).thenReturn(leftovers);
+        when(couponRepository.deactivateIfExpired(anyCollection(), any())).thenReturn(2, 2, 1);
+
+        deactivator.sweep();
+
+        verify(couponRepository, times(3)).deactivateIfExpired(anyCollection(), any());
+        assertEquals(5, deactivatedCount());
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.repository.CouponRepository;
+import com.example.ordermanagement.service.CouponRedemptionLedger.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponRedemptionLedgerTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    private CouponRedemptionLedger ledger;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger flushedUses = new AtomicInteger();
+
+    private volatile boolean databaseDown;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new CouponRedemptionLedger(couponRepository, mock(PlatformTransactionManager.class), meterRegistry, 8, 2);
+    }
+
+    private void givenCoupon(int maxUses, int usedCount) {
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setMaxUses(maxUses);
+        coupon.setUsedCount(usedCount);
+        coupon.setHighContention(true);
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+    }
+
+    private void recordFlushes() {
+        when(couponRepository.addUsedCount(eq(1L), anyInt())).thenAnswer(invocation -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("Database is down");
+            }
+            flushedUses.addAndGet(invocation.getArgument(1));
+            return 1;
+        });
+    }
+
+    // Runs the action as if in a transaction and returns its synchronizations, not yet completed
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    @Test
+    @DisplayName("Should hand out exactly the remaining budget under concurrent redemptions")
+    void shouldNotOversellUnderConcurrency() throws Exception {
+        givenCoupon(10_000, 1_000);
+        recordFlushes();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 16; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int acquired = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (ledger.acquire(1L) == Outcome.ACQUIRED) {
+                            acquired++;
+                        }
+                        if (i % 250 == 0) {
+                            ledger.flush();
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            start.countDown();
+
+            int acquired = 0;
+            for (Future<Integer> worker : workers) {
+                acquired += worker.get(30, TimeUnit.SECONDS);
+            }
+            ledger.flush();
+
+            assertEquals(9_000, acquired);
+            assertEquals(9_000, flushedUses.get());
+            verify(couponRepository, times(1)).findById(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should flush consumed permits only, and re-read the budget after retire")
+    void shouldFlushConsumedPermitsOnRetire() {
+        givenCoupon(100, 0);
+        recordFlushes();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+        }
+        ledger.retire(1L);
+        ledger.flush();
+
+        assertEquals(3, flushedUses.get());
+
+        assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+        verify(couponRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should neither oversell nor lose permits when budgets are retired during redemptions")
+    void shouldNotOversellAcrossRetires() throws Exception {
+        // Re-reads see the flushed redemptions, like the row would
+        when(couponRepository.findById(1L)).thenAnswer(invocation -> {
+            Coupon coupon = new Coupon();
+            coupon.setId(1L);
+            coupon.setMaxUses(5_000);
+            coupon.setUsedCount(flushedUses.get());
+            coupon.setHighContention(true);
+            return Optional.of(coupon);
+        });
+        recordFlushes();
+
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int acquired = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (ledger.acquire(1L) == Outcome.ACQUIRED) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            Future<?> retirer = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    ledger.retire(1L);
+                    Thread.yield();
+                }
+                return null;
+            });
+            start.countDown();
+
+            int acquired = 0;
+            for (Future<Integer> worker : workers) {
+                acquired += worker.get(30, TimeUnit.SECONDS);
+            }
+            retirer.get(30, TimeUnit.SECONDS);
+            ledger.flush();
+
+            assertEquals(5_000, acquired);
+            assertEquals(5_000, flushedUses.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not hold up other coupons while a budget is being loaded")
+    void shouldLoadBudgetsIndependently() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Coupon slow = new Coupon();
+        slow.setId(1L);
+        slow.setMaxUses(10);
+        slow.setUsedCount(0);
+        slow.setHighContention(true);
+        when(couponRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(slow);
+        });
+        // Lands in the same ConcurrentHashMap bin as id 1
+        Coupon other = new Coupon();
+        other.setId(17L);
+        other.setMaxUses(10);
+        other.setUsedCount(0);
+        other.setHighContention(true);
+        when(couponRepository.findById(17L)).thenReturn(Optional.of(other));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Outcome> slowRedemption = executor.submit(() -> ledger.acquire(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Outcome.ACQUIRED, executor.submit(() -> ledger.acquire(17L)).get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            assertEquals(Outcome.ACQUIRED, slowRedemption.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse redemptions once the budget is exhausted")
+    void shouldRefuseWhenExhausted() {
+        givenCoupon(5, 5);
+
+        assertEquals(Outcome.EXHAUSTED, ledger.acquire(1L));
+        ledger.flush();
+
+        verify(couponRepository, never()).addUsedCount(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should refuse to allocate a budget for a coupon that is not in high-contention mode")
+    void shouldRefuseCouponNotInHighContentionMode() {
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setMaxUses(5);
+        coupon.setUsedCount(0);
+        coupon.setHighContention(false);
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+
+        assertEquals(Outcome.NOT_HIGH_CONTENTION, ledger.acquire(1L));
+        assertEquals(Outcome.NOT_HIGH_CONTENTION, ledger.acquire(1L));
+
+        // Nothing is kept for the coupon, so a switch to high-contention mode is seen at once
+        verify(couponRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should suspend redemptions after repeated flush failures and resume once a flush succeeds")
+    void shouldSuspendAfterFailedFlushes() {
+        givenCoupon(100, 0);
+        recordFlushes();
+        assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+
+        databaseDown = true;
+        ledger.flush();
+        assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+        ledger.flush();
+
+        assertEquals(Outcome.SUSPENDED, ledger.acquire(1L));
+        assertEquals(2.0, unflushedGauge());
+
+        databaseDown = false;
+        ledger.flush();
+
+        assertEquals(2, flushedUses.get());
+        assertEquals(0.0, unflushedGauge());
+        assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+    }
+
+    @Test
+    @DisplayName("Should keep a retired budget whose flush failed and leave its redemptions out of the next budget")
+    void shouldKeepRetiredBudgetUntilFlushed() {
+        givenCoupon(10, 0);
+        recordFlushes();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+        }
+
+        databaseDown = true;
+        ledger.retire(1L);
+        assertEquals(3.0, unflushedGauge());
+
+        // The row still says 0 used, but 3 of the 10 uses are held back in the retired budget
+        for (int i = 0; i < 7; i++) {
+            assertEquals(Outcome.ACQUIRED, ledger.acquire(1L));
+        }
+        assertEquals(Outcome.EXHAUSTED, ledger.acquire(1L));
+
+        databaseDown = false;
+        ledger.flush();
+
+        assertEquals(10, flushedUses.get());
+        assertEquals(0.0, unflushedGauge());
+    }
+
+    @Test
+    @DisplayName("Should give back the permit of a redemption whose transaction rolls back")
+    void shouldReleasePermitOnRollback() {
+        givenCoupon(1, 0);
+        recordFlushes();
+
+        List<TransactionSynchronization> rolledBack = inTransaction(() -> assertEquals(Outcome.ACQUIRED, ledger.acquire(1L)));
+        ledger.flush();
+        complete(rolledBack, TransactionSynchronization.STATUS_ROLLED_BACK);
+        ledger.flush();
+
+        assertEquals(0, flushedUses.get());
+        assertEquals(0.0, unflushedGauge());
+
+        List<TransactionSynchronization> committed = inTransaction(() -> assertEquals(Outcome.ACQUIRED, ledger.acquire(1L)));
+        complete(committed, TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(Outcome.EXHAUSTED, ledger.acquire(1L));
+        ledger.flush();
+
+        assertEquals(1, flushedUses.get());
+    }
+
+    @Test
+    @DisplayName("Should write back the permit of a rolled back redemption whose budget was retired and flushed")
+    void shouldReleasePermitOfRetiredBudget() {
+        givenCoupon(10, 0);
+        recordFlushes();
+
+        List<TransactionSynchronization> rolledBack = inTransaction(() -> assertEquals(Outcome.ACQUIRED, ledger.acquire(1L)));
+        ledger.retire(1L);
+        assertEquals(1, flushedUses.get());
+
+        complete(rolledBack, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(-1.0, unflushedGauge());
+        ledger.flush();
+
+        assertEquals(0, flushedUses.get());
+        assertEquals(0.0, unflushedGauge());
+    }
+
+    private double unflushedGauge() {
+        return meterRegistry.get("coupon.redemptions.unflushed").gauge().value();
+    }
+}
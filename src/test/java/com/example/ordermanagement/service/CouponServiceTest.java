@@ -1,21 +1,30 @@
 package com.example.ordermanagement.service;
 
+import com.example.ordermanagement.dto.DiscountQuote;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
 import com.example.ordermanagement.entity.Coupon;
 import com.example.ordermanagement.entity.CouponType;
 import com.example.ordermanagement.exception.ResourceNotFoundException;
 import com.example.ordermanagement.repository.CouponRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,7 +36,8 @@ class CouponServiceTest {
     @Mock
     private CouponRepository couponRepository;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private CouponService couponService;
 
     private Coupon validPercentageCoupon;
@@ -35,6 +45,17 @@ class CouponServiceTest {
 
     @BeforeEach
     void setUp() {
+        CouponMetrics couponMetrics = new CouponMetrics(meterRegistry);
+        couponService = new CouponService(couponRepository,
+                new CouponCache(couponRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)),
+                new CouponRedemptionLedger(couponRepository, mock(PlatformTransactionManager.class), meterRegistry, 4, 5),
+                couponMetrics,
+                new DiscountCalculator(couponMetrics),
+                new CouponValidator(),
+                new ValidCouponIndex(couponRepository, Duration.ofSeconds(1)),
+                new CouponCodeGenerator(new AtomicLong()::getAndIncrement, 1L, 100),
+                new OptimisticLockRetry(mock(PlatformTransactionManager.class), meterRegistry, 3, Duration.ZERO));
+
         // Valid PERCENTAGE coupon
         validPercentageCoupon = new Coupon();
         validPercentageCoupon.setId(1L);
@@ -101,6 +122,25 @@ class CouponServiceTest {
             assertDoesNotThrow(() -> couponService.createCoupon(coupon));
         }
 
+        @Test
+        @DisplayName("Should generate a code only when none is given")
+        void shouldGenerateMissingCode() {
+            Coupon coupon = new Coupon();
+            coupon.setType(CouponType.FIXED);
+            coupon.setValue(new BigDecimal("10.00"));
+            coupon.setMinOrderAmount(BigDecimal.ZERO);
+            coupon.setMaxUses(100);
+            coupon.setValidFrom(LocalDateTime.now());
+            coupon.setValidUntil(LocalDateTime.now().plusDays(30));
+            when(couponRepository.save(any(Coupon.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            String generated = couponService.createCoupon(coupon).getCode();
+            assertTrue(generated.matches("[A-Z0-9]{8}"), generated);
+
+            coupon.setCode("MYCODE01");
+            assertEquals("MYCODE01", couponService.createCoupon(coupon).getCode());
+        }
+
         @Test
         @DisplayName("Should allow any value for FIXED type")
         void shouldAllowAnyValueForFixedType() {
@@ -355,13 +395,14 @@ class CouponServiceTest {
         @Test
         @DisplayName("Should increment used count successfully")
         void shouldIncrementUsedCountSuccessfully() {
-            validPercentageCoupon.setUsedCount(5);
+            validPercentageCoupon.setUsedCount(6);
+            when(couponRepository.incrementUsedCountIfAvailable(1L)).thenReturn(1);
             when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
-            when(couponRepository.save(any(Coupon.class))).thenReturn(validPercentageCoupon);
 
             Coupon result = couponService.incrementUsedCount(1L);
 
-            assertEquals(6, validPercentageCoupon.getUsedCount());
+            assertEquals(6, result.getUsedCount());
+            verify(couponRepository, never()).save(any(Coupon.class));
         }
 
         @Test
@@ -369,6 +410,7 @@ class CouponServiceTest {
         void shouldThrowExceptionWhenExceedingMaxUses() {
             validPercentageCoupon.setUsedCount(100); // Already at max
             validPercentageCoupon.setMaxUses(100);
+            when(couponRepository.incrementUsedCountIfAvailable(1L)).thenReturn(0);
             when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
 
             IllegalStateException exception = assertThrows(
@@ -382,14 +424,98 @@ class CouponServiceTest {
         @Test
         @DisplayName("Should allow increment when at max-1 uses")
         void shouldAllowIncrementAtMaxMinusOne() {
-            validPercentageCoupon.setUsedCount(99); // One below max
+            validPercentageCoupon.setUsedCount(100); // Row after redeeming the last use
             validPercentageCoupon.setMaxUses(100);
+            when(couponRepository.incrementUsedCountIfAvailable(1L)).thenReturn(1);
             when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
-            when(couponRepository.save(any(Coupon.class))).thenReturn(validPercentageCoupon);
 
             Coupon result = couponService.incrementUsedCount(1L);
 
-            assertEquals(100, validPercentageCoupon.getUsedCount());
+            assertEquals(100, result.getUsedCount());
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when incrementing non-existent coupon")
+        void shouldThrowExceptionWhenIncrementingNonExistentCoupon() {
+            when(couponRepository.incrementUsedCountIfAvailable(999L)).thenReturn(0);
+            when(couponRepository.findById(999L)).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class,
+                    () -> couponService.incrementUsedCount(999L));
+        }
+
+        @Test
+        @DisplayName("Should increment used count by code")
+        void shouldIncrementUsedCountByCode() {
+            validPercentageCoupon.setUsedCount(6);
+            when(couponRepository.incrementUsedCountIfAvailableByCode("SAVE20PC")).thenReturn(1);
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+
+            Coupon result = couponService.incrementUsedCountByCode("SAVE20PC");
+
+            assertEquals(6, result.getUsedCount());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when code has reached max uses")
+        void shouldThrowExceptionWhenCodeExhausted() {
+            validPercentageCoupon.setUsedCount(100);
+            when(couponRepository.incrementUsedCountIfAvailableByCode("SAVE20PC")).thenReturn(0);
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+
+            assertThrows(IllegalStateException.class,
+                    () -> couponService.incrementUsedCountByCode("SAVE20PC"));
+        }
+
+        @Test
+        @DisplayName("Should redeem high-contention coupon from memory without a conditional update")
+        void shouldRedeemHighContentionCouponFromMemory() {
+            validPercentageCoupon.setHighContention(true);
+            validPercentageCoupon.setUsedCount(98);
+            validPercentageCoupon.setMaxUses(100);
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
+
+            couponService.incrementUsedCountByCode("SAVE20PC");
+            couponService.incrementUsedCountByCode("SAVE20PC");
+
+            assertThrows(IllegalStateException.class,
+                    () -> couponService.incrementUsedCountByCode("SAVE20PC"));
+            verify(couponRepository, never()).incrementUsedCountIfAvailableByCode(any());
+        }
+
+        @Test
+        @DisplayName("Should redeem through the row when the cached coupon is no longer in high-contention mode")
+        void shouldRedeemThroughRowWhenCachedModeIsStale() {
+            Coupon cached = validPercentageCoupon.copy();
+            cached.setHighContention(true);
+            validPercentageCoupon.setUsedCount(6);
+            when(couponRepository.findByCode("SAVE20PC"))
+                    .thenReturn(Optional.of(cached), Optional.of(validPercentageCoupon));
+            when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.incrementUsedCountIfAvailableByCode("SAVE20PC")).thenReturn(1);
+
+            Coupon result = couponService.incrementUsedCountByCode("SAVE20PC");
+
+            assertEquals(6, result.getUsedCount());
+            verify(couponRepository).incrementUsedCountIfAvailableByCode("SAVE20PC");
+        }
+
+        @Test
+        @DisplayName("Should redeem from memory when the coupon was switched to high-contention mode after being cached")
+        void shouldRedeemFromMemoryWhenSwitchedToHighContention() {
+            Coupon cached = validPercentageCoupon.copy();
+            validPercentageCoupon.setHighContention(true);
+            when(couponRepository.findByCode("SAVE20PC"))
+                    .thenReturn(Optional.of(cached), Optional.of(validPercentageCoupon));
+            when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
+            // The conditional update skips rows in high-contention mode
+            when(couponRepository.incrementUsedCountIfAvailableByCode("SAVE20PC")).thenReturn(0);
+
+            Coupon result = couponService.incrementUsedCountByCode("SAVE20PC");
+
+            assertTrue(result.getHighContention());
+            assertEquals(0.0, meterRegistry.counter("coupon.validation.failures", "reason", "exhausted").count());
         }
     }
 
@@ -418,4 +544,148 @@ class CouponServiceTest {
                     () -> couponService.deactivateCoupon(999L));
         }
     }
+
+    @Nested
+    @DisplayName("Coupon Cache Tests")
+    class CouponCacheTests {
+
+        @Test
+        @DisplayName("Should serve repeated code lookups from the cache")
+        void shouldServeRepeatedLookupsFromCache() {
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+
+            couponService.getCouponByCode("SAVE20PC");
+            couponService.calculateDiscount("SAVE20PC", new BigDecimal("100.00"));
+
+            verify(couponRepository, times(1)).findByCode("SAVE20PC");
+        }
+
+        @Test
+        @DisplayName("Should not cache unknown codes")
+        void shouldNotCacheUnknownCodes() {
+            when(couponRepository.findByCode("UNKNOWN")).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class, () -> couponService.getCouponByCode("UNKNOWN"));
+            assertThrows(ResourceNotFoundException.class, () -> couponService.getCouponByCode("UNKNOWN"));
+
+            verify(couponRepository, times(2)).findByCode("UNKNOWN");
+        }
+
+        @Test
+        @DisplayName("Should reload coupon from repository after it is deleted")
+        void shouldEvictCouponOnDelete() {
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
+
+            couponService.getCouponByCode("SAVE20PC");
+            couponService.deleteCoupon(1L);
+            couponService.getCouponByCode("SAVE20PC");
+
+            verify(couponRepository, times(2)).findByCode("SAVE20PC");
+        }
+
+        @Test
+        @DisplayName("Should refresh cached coupon when it is deactivated")
+        void shouldRefreshCouponOnDeactivate() {
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.findById(1L)).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.save(any(Coupon.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            couponService.getCouponByCode("SAVE20PC");
+            couponService.deactivateCoupon(1L);
+
+            assertFalse(couponService.getCouponByCode("SAVE20PC").getActive());
+            verify(couponRepository, times(1)).findByCode("SAVE20PC");
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Discount Quotation Tests")
+    class QuoteDiscountsTests {
+
+        @Test
+        @DisplayName("Should resolve distinct codes with one query and price each item independently")
+        void shouldQuoteEachItemIndependently() {
+            when(couponRepository.findByCodeIn(Set.of("SAVE20PC", "FLAT50OF", "UNKNOWN")))
+                    .thenReturn(List.of(validPercentageCoupon, validFixedCoupon));
+
+            List<DiscountQuote> quotes = couponService.quoteDiscounts(Arrays.asList(
+                    new DiscountQuoteRequest("SAVE20PC", new BigDecimal("100.00")),
+                    new DiscountQuoteRequest("FLAT50OF", new BigDecimal("50.00")),
+                    new DiscountQuoteRequest("UNKNOWN", new BigDecimal("100.00")),
+                    new DiscountQuoteRequest("FLAT50OF", new BigDecimal("200.00")),
+                    new DiscountQuoteRequest(null, new BigDecimal("10.00"))));
+
+            assertEquals(5, quotes.size());
+            assertEquals(new BigDecimal("20.00"), quotes.get(0).discount());
+            assertEquals(new BigDecimal("80.00"), quotes.get(0).finalAmount());
+            assertTrue(quotes.get(1).error().contains("minimum requirement"));
+            assertTrue(quotes.get(2).error().contains("not found"));
+            assertEquals(new BigDecimal("50.00"), quotes.get(3).discount());
+            assertNotNull(quotes.get(4).error());
+            verify(couponRepository, times(1)).findByCodeIn(any());
+            verify(couponRepository, never()).findByCode(any());
+        }
+
+        @Test
+        @DisplayName("Should not query the database for codes already cached")
+        void shouldUseCachedCoupons() {
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+            couponService.getCouponByCode("SAVE20PC");
+
+            List<DiscountQuote> quotes = couponService.quoteDiscounts(List.of(
+                    new DiscountQuoteRequest("SAVE20PC", new BigDecimal("33.33"))));
+
+            assertEquals(new BigDecimal("6.67"), quotes.get(0).discount());
+            verify(couponRepository, never()).findByCodeIn(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Coupon Metrics Tests")
+    class CouponMetricsTests {
+
+        private double failures(String reason) {
+            return meterRegistry.get("coupon.validation.failures").tag("reason", reason).counter().count();
+        }
+
+        @Test
+        @DisplayName("Should count validation failures by reason")
+        void shouldCountValidationFailuresByReason() {
+            validPercentageCoupon.setValidUntil(LocalDateTime.now().minusDays(1));
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.findByCode("FLAT50OF")).thenReturn(Optional.of(validFixedCoupon));
+            when(couponRepository.findByCode("UNKNOWN")).thenReturn(Optional.empty());
+
+            assertThrows(IllegalStateException.class,
+                    () -> couponService.calculateDiscount("SAVE20PC", new BigDecimal("100.00")));
+            assertThrows(IllegalStateException.class,
+                    () -> couponService.calculateDiscount("FLAT50OF", new BigDecimal("50.00")));
+            assertThrows(ResourceNotFoundException.class,
+                    () -> couponService.calculateDiscount("UNKNOWN", new BigDecimal("50.00")));
+
+            assertEquals(1, failures("expired"));
+            assertEquals(1, failures("below_minimum"));
+            assertEquals(1, failures("not_found"));
+            assertEquals(0, failures("inactive"));
+        }
+
+        @Test
+        @DisplayName("Should total granted discounts by coupon type")
+        void shouldTotalDiscountsByType() {
+            when(couponRepository.findByCode("SAVE20PC")).thenReturn(Optional.of(validPercentageCoupon));
+            when(couponRepository.findByCode("FLAT50OF")).thenReturn(Optional.of(validFixedCoupon));
+
+            couponService.calculateDiscount("SAVE20PC", new BigDecimal("100.00"));
+            couponService.calculateDiscount("SAVE20PC", new BigDecimal("50.00"));
+            couponService.calculateDiscount("FLAT50OF", new BigDecimal("200.00"));
+
+            DistributionSummary percentage = meterRegistry.get("coupon.discount.amount")
+                    .tag("type", "PERCENTAGE").summary();
+            assertEquals(2, percentage.count());
+            assertEquals(30.0, percentage.totalAmount());
+            assertEquals(50.0, meterRegistry.get("coupon.discount.amount")
+                    .tag("type", "FIXED").summary().totalAmount());
+        }
+    }
 }
@@ -0,0 +1,246 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.discount.Cents;
+import com.example.ordermanagement.dto.DiscountQuoteRequest;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the compiled discount rules give exactly the results of the original
+ * {@link BigDecimal} rules, always with a scale of 2.
+ */
+class DiscountCalculatorTest {
+
+    private final DiscountCalculator calculator = new DiscountCalculator(new CouponMetrics(new SimpleMeterRegistry()));
+
+    private static Coupon coupon(CouponType type, BigDecimal value, BigDecimal minOrderAmount) {
+        Coupon coupon = new Coupon();
+        coupon.setCode("PARITY01");
+        coupon.setType(type);
+        coupon.setValue(value);
+        coupon.setMinOrderAmount(minOrderAmount);
+        coupon.setMaxUses(100);
+        coupon.setUsedCount(0);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+        coupon.setActive(true);
+        return coupon;
+    }
+
+    private static BigDecimal referencePercentage(BigDecimal orderAmount, BigDecimal percent) {
+        return orderAmount.multiply(percent).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal randomAmount(Random random, long maxCents) {
+        long cents = 1 + (long) (random.nextDouble() * maxCents);
+        // Amounts arrive with any scale, e.g. 30, 30.5, 30.50 or 30.500
+        return BigDecimal.valueOf(cents, 2).setScale(random.nextInt(4), RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal randomSubCentAmount(Random random, long maxCents) {
+        long cents = (long) (random.nextDouble() * maxCents);
+        // Always with a fraction of a cent, e.g. 30.0050 or 0.0049
+        return BigDecimal.valueOf(cents * 100 + 1 + random.nextInt(99), 4);
+    }
+
+    @Nested
+    @DisplayName("PERCENTAGE Parity Tests")
+    class PercentageParityTests {
+
+        @Test
+        @DisplayName("Should match BigDecimal HALF_UP for random amounts and percentages")
+        void shouldMatchReferenceForRandomInputs() {
+            Random random = new Random(19);
+            for (int i = 0; i < 200_000; i++) {
+                BigDecimal amount = randomAmount(random, 100_000_000_00L);
+                BigDecimal percent = BigDecimal.valueOf(1 + random.nextInt(5_000), 2);
+                BigDecimal expected = referencePercentage(amount, percent);
+
+                assertEquals(expected, calculator.apply(coupon(CouponType.PERCENTAGE, percent, BigDecimal.ZERO), amount),
+                        () -> amount + " at " + percent + "%");
+            }
+        }
+
+        @Test
+        @DisplayName("Should round exact half cents up")
+        void shouldRoundTiesUp() {
+            for (String[] tie : new String[][]{{"0.05", "10"}, {"0.25", "50.00"}, {"12.35", "10.00"}, {"1.01", "0.50"}}) {
+                BigDecimal amount = new BigDecimal(tie[0]);
+                BigDecimal percent = new BigDecimal(tie[1]);
+
+                assertEquals(referencePercentage(amount, percent),
+                        calculator.apply(coupon(CouponType.PERCENTAGE, percent, BigDecimal.ZERO), amount));
+            }
+        }
+
+        @Test
+        @DisplayName("Should price fractions of a cent on the unrounded amount")
+        void shouldMatchReferenceForSubCentAmounts() {
+            Random random = new Random(20);
+            for (int i = 0; i < 20_000; i++) {
+                BigDecimal amount = randomSubCentAmount(random, 1_000_00);
+                BigDecimal percent = BigDecimal.valueOf(1 + random.nextInt(5_000), 2);
+
+                assertEquals(referencePercentage(amount, percent),
+                        calculator.apply(coupon(CouponType.PERCENTAGE, percent, BigDecimal.ZERO), amount),
+                        () -> amount + " at " + percent + "%");
+            }
+
+            Coupon half = coupon(CouponType.PERCENTAGE, new BigDecimal("50.00"), BigDecimal.ZERO);
+            assertEquals(new BigDecimal("0.00"), calculator.apply(half, new BigDecimal("0.005")));
+            assertEquals(new BigDecimal("0.01"), calculator.apply(half, new BigDecimal("0.0250")));
+        }
+
+        @Test
+        @DisplayName("Should refuse negative and out of range amounts")
+        void shouldRefuseAmountsOutOfRange() {
+            Coupon coupon = coupon(CouponType.PERCENTAGE, new BigDecimal("50.00"), BigDecimal.ZERO);
+
+            assertEquals(new BigDecimal("500000000000.00"), calculator.apply(coupon, new BigDecimal("1000000000000.00")));
+            for (String amount : List.of("-0.01", "1000000000000.01", "123456789012345678901234.56")) {
+                assertThrows(IllegalStateException.class, () -> calculator.apply(coupon, new BigDecimal(amount)));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("FIXED Parity Tests")
+    class FixedParityTests {
+
+        @Test
+        @DisplayName("Should return the same discount and enforce the same minimum as BigDecimal")
+        void shouldMatchReferenceForRandomInputs() {
+            Random random = new Random(23);
+            for (int i = 0; i < 100_000; i++) {
+                BigDecimal amount = randomAmount(random, 1_000_00);
+                BigDecimal value = randomAmount(random, 500_00);
+                BigDecimal minimum = random.nextBoolean() ? BigDecimal.ZERO : randomAmount(random, 1_000_00);
+                Coupon coupon = coupon(CouponType.FIXED, value, minimum);
+
+                // Below the minimum only through the rule, as every refusal by the calculator logs a warning
+                if (amount.compareTo(minimum) < 0) {
+                    assertFalse(coupon.canApplyToOrder(amount));
+                } else {
+                    assertTrue(coupon.canApplyToOrder(amount));
+                    BigDecimal expected = (value.compareTo(amount) > 0 ? amount : value).setScale(2);
+                    assertEquals(expected, calculator.apply(coupon, amount));
+                }
+            }
+
+            Coupon minimum = coupon(CouponType.FIXED, new BigDecimal("5.00"), new BigDecimal("30.00"));
+            assertThrows(IllegalStateException.class, () -> calculator.apply(minimum, new BigDecimal("29.99")));
+        }
+
+        @Test
+        @DisplayName("Should cap at and compare the unrounded amount for fractions of a cent")
+        void shouldMatchReferenceForSubCentAmounts() {
+            Random random = new Random(29);
+            for (int i = 0; i < 20_000; i++) {
+                BigDecimal amount = randomSubCentAmount(random, 1_000_00);
+                BigDecimal value = randomAmount(random, 500_00);
+                BigDecimal minimum = random.nextBoolean() ? BigDecimal.ZERO : randomAmount(random, 1_000_00);
+                Coupon coupon = coupon(CouponType.FIXED, value, minimum);
+
+                if (amount.compareTo(minimum) < 0) {
+                    assertFalse(coupon.canApplyToOrder(amount), () -> amount + " below " + minimum);
+                } else {
+                    assertTrue(coupon.canApplyToOrder(amount), () -> amount + " above " + minimum);
+                    BigDecimal expected = value.compareTo(amount) > 0 ? amount : value.setScale(2);
+                    assertEquals(expected, calculator.apply(coupon, amount), () -> value + " off " + amount);
+                }
+            }
+
+            Coupon fifty = coupon(CouponType.FIXED, new BigDecimal("50.00"), new BigDecimal("30.00"));
+            BigDecimal amount = new BigDecimal("30.005");
+            assertEquals(0, amount.subtract(calculator.apply(fifty, amount)).signum());
+            assertThrows(IllegalStateException.class, () -> calculator.apply(fifty, new BigDecimal("29.995")));
+        }
+
+        @Test
+        @DisplayName("Should follow a value replaced after the first discount")
+        void shouldReconvertReplacedValue() {
+            Coupon coupon = coupon(CouponType.FIXED, new BigDecimal("10.00"), new BigDecimal("50.00"));
+            assertEquals(new BigDecimal("10.00"), calculator.apply(coupon, new BigDecimal("60.00")));
+
+            coupon.setValue(new BigDecimal("70.00"));
+            coupon.setMinOrderAmount(new BigDecimal("65.00"));
+
+            assertEquals(new BigDecimal("66.50"), calculator.apply(coupon, new BigDecimal("66.50")));
+            assertFalse(coupon.canApplyToOrder(new BigDecimal("60.00")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Customer Restriction Tests")
+    class CustomerRestrictionTests {
+
+        @Test
+        @DisplayName("Should price a restricted coupon only for its customer")
+        void shouldRejectOtherCustomers() {
+            Coupon coupon = coupon(CouponType.PERCENTAGE, new BigDecimal("10"), BigDecimal.ZERO);
+            coupon.setCustomerId(7L);
+            BigDecimal amount = new BigDecimal("80.00");
+
+            assertEquals(new BigDecimal("8.00"), calculator.apply(coupon, amount, 7L));
+            assertEquals("Coupon is not available for this customer",
+                    assertThrows(IllegalStateException.class, () -> calculator.apply(coupon, amount, 8L)).getMessage());
+            assertThrows(IllegalStateException.class, () -> calculator.apply(coupon, amount));
+        }
+
+        @Test
+        @DisplayName("Should report another customer's coupon in the quote")
+        void shouldRejectInQuote() {
+            Coupon coupon = coupon(CouponType.FIXED, new BigDecimal("5.00"), BigDecimal.ZERO);
+            coupon.setCustomerId(7L);
+            Map<String, Coupon> coupons = Map.of(coupon.getCode(), coupon);
+
+            assertEquals(new BigDecimal("5.00"), calculator.quote(
+                    new DiscountQuoteRequest(coupon.getCode(), BigDecimal.TEN, 7L), coupons).discount());
+            assertEquals("Coupon is not available for this customer", calculator.quote(
+                    new DiscountQuoteRequest(coupon.getCode(), BigDecimal.TEN), coupons).error());
+        }
+    }
+
+    @Nested
+    @DisplayName("Cents Conversion Tests")
+    class CentsConversionTests {
+
+        @Test
+        @DisplayName("Should convert whole cents whatever the scale")
+        void shouldConvertWholeCents() {
+            assertEquals(1050, Cents.of(new BigDecimal("10.5")));
+            assertEquals(1050, Cents.of(new BigDecimal("10.500")));
+            assertEquals(100_000, Cents.of(new BigDecimal("1E+3")));
+            assertEquals(-1, Cents.of(new BigDecimal("-0.01")));
+            assertEquals(new BigDecimal("10.50"), Cents.toBigDecimal(1050));
+        }
+
+        @Test
+        @DisplayName("Should refuse fractions of a cent, huge amounts and null")
+        void shouldRefuseAmountsOutsideCents() {
+            assertEquals(Cents.NOT_CENTS, Cents.of(new BigDecimal("10.505")));
+            assertEquals(Cents.NOT_CENTS, Cents.of(new BigDecimal("12345678901234567.00")));
+            assertEquals(Cents.NOT_CENTS, Cents.of(null));
+        }
+
+        @Test
+        @DisplayName("Should round negative ties away from zero and report overflow")
+        void shouldHandleNegativeTiesAndOverflow() {
+            assertEquals(-1, Cents.percentage(-5, 1_000));
+            assertEquals(Cents.NOT_CENTS, Cents.percentage(Long.MAX_VALUE / 100, 5_000));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.entity.IdempotencyRecord;
+import com.example.ordermanagement.repository.IdempotencyRecordRepository;
+import com.example.ordermanagement.service.IdempotencyStore.StoredResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private IdempotencyStore store(boolean persistent) {
+        return new IdempotencyStore(recordRepository, new SimpleMeterRegistry(),
+                DataSize.ofKilobytes(64), Duration.ofHours(1), persistent);
+    }
+
+    private static StoredResponse created(String body) {
+        return new StoredResponse("fp", 201, "application/json", "/api/orders/1", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static IdempotencyRecord record(LocalDateTime createdAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey("key-1");
+        record.setFingerprint("fp");
+        record.setStatus(201);
+        record.setBody("{}".getBytes(StandardCharsets.UTF_8));
+        record.setCreatedAt(createdAt);
+        return record;
+    }
+
+    @Test
+    @DisplayName("Should hand a key to one request and show the others it is running")
+    void shouldClaimOnce() {
+        IdempotencyStore store = store(false);
+
+        assertNull(store.claim("key-1", "fp"));
+        assertTrue(store.claim("key-1", "fp").isRunning());
+
+        store.complete("key-1", created("{}"));
+        assertEquals(201, store.claim("key-1", "fp").status());
+
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    @DisplayName("Should let a released key be claimed again")
+    void shouldReleaseKey() {
+        IdempotencyStore store = store(false);
+        store.claim("key-1", "fp");
+
+        store.release("key-1");
+
+        assertNull(store.claim("key-1", "fp"));
+    }
+
+    @Test
+    @DisplayName("Should keep a key running while stored responses are evicted")
+    void shouldNotEvictRunningKey() {
+        IdempotencyStore store = store(false);
+        assertNull(store.claim("key-1", "fp"));
+
+        // Ten times the 64 KB the cache may hold
+        for (int i = 0; i < 320; i++) {
+            assertNull(store.claim("filler-" + i, "fp"));
+            store.complete("filler-" + i, created("x".repeat(2_000)));
+        }
+
+        assertTrue(store.claim("key-1", "other").isRunning());
+    }
+
+    @Test
+    @DisplayName("Should persist responses and read unexpired ones back on a cache miss")
+    void shouldUsePersistedResponses() {
+        IdempotencyStore store = store(true);
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record(LocalDateTime.now().minusMinutes(5))));
+        when(recordRepository.findById("key-2")).thenReturn(Optional.of(record(LocalDateTime.now().minusHours(2))));
+
+        assertEquals(201, store.claim("key-1", "fp").status());
+        assertNull(store.claim("key-2", "fp"));
+
+        store.complete("key-2", created("{\"id\":2}"));
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(recordRepository).save(saved.capture());
+        assertEquals("key-2", saved.getValue().getIdempotencyKey());
+        assertEquals("/api/orders/1", saved.getValue().getLocation());
+    }
+
+    @Test
+    @DisplayName("Should purge expired records only when persistent")
+    void shouldPurgeExpiredRecords() {
+        store(false).purgeExpired();
+        verify(recordRepository, never()).deleteCreatedBefore(any());
+
+        store(true).purgeExpired();
+        verify(recordRepository).deleteCreatedBefore(any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ordermanagement.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class OptimisticLockRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final OptimisticLockRetry retry = new OptimisticLockRetry(
+            mock(PlatformTransactionManager.class), meterRegistry, 3, Duration.ofMillis(1));
+
+    private double attempts(String outcome) {
+        return meterRegistry.get("optimistic.lock.attempts")
+                .tags("operation", "test", "outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should run the action again after it loses an optimistic locking race")
+    void shouldRetryConflicts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retry.execute("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, attempts("conflict"));
+        assertEquals(1, attempts("committed"));
+    }
+
+    @Test
+    @DisplayName("Should give up and rethrow once every attempt lost its race")
+    void shouldRethrowWhenExhausted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retry.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(3, attempts("conflict"));
+        assertEquals(1, meterRegistry.get("optimistic.lock.exhausted").tag("operation", "test").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not retry other failures")
+    void shouldNotRetryOtherFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retry.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("invalid");
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse a non-positive number of attempts")
+    void shouldRefuseNonPositiveAttempts() {
+        assertThrows(IllegalArgumentException.class, () -> new OptimisticLockRetry(
+                mock(PlatformTransactionManager.class), meterRegistry, 0, Duration.ZERO));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import com.example.ordermanagement.repository.CouponRepository;
+import com.example.ordermanagement.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the retried updates against the real transaction manager and H2. A concurrent writer is
+ * made to commit while the first attempt is between its read and its save, so that the attempt
+ * deterministically loses its {@code @Version} race.
+ */
+@SpringBootTest
+class OptimisticLockingIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SaveInterleaver saveInterleaver;
+
+    @TestConfiguration
+    static class InterleavingConfig {
+
+        @Bean
+        static SaveInterleaver saveInterleaver() {
+            return new SaveInterleaver();
+        }
+    }
+
+    /**
+     * Runs the write handed to {@link #beforeNextSave} on another thread, and so in a
+     * transaction of its own, before the next repository save goes through.
+     */
+    static class SaveInterleaver implements BeanPostProcessor {
+
+        private final AtomicReference<Runnable> nextWrite = new AtomicReference<>();
+
+        void beforeNextSave(Runnable write) {
+            nextWrite.set(write);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if ((bean instanceof OrderRepository || bean instanceof CouponRepository) && bean instanceof Advised advised) {
+                advised.addAdvice(0, (MethodInterceptor) invocation -> {
+                    Runnable write = invocation.getMethod().getName().equals("save") ? nextWrite.getAndSet(null) : null;
+                    if (write != null) {
+                        CompletableFuture.runAsync(write).get(10, TimeUnit.SECONDS);
+                    }
+                    return invocation.proceed();
+                });
+            }
+            return bean;
+        }
+    }
+
+    @Nested
+    @DisplayName("updateOrderStatus")
+    class UpdateOrderStatusTests {
+
+        @Test
+        @DisplayName("Should retry a status change that loses its race and count only committed transitions")
+        void shouldRetryConflictingStatusChange() {
+            Order order = new Order();
+            order.setName("Conflicting order");
+            order.setOriginalAmount(new BigDecimal("100.00"));
+            order.setFinalAmount(new BigDecimal("100.00"));
+            order.setCustomerId(1L);
+            Long id = orderService.createOrder(order).getId();
+
+            double conflicts = attempts("order.status", "conflict");
+            double commits = attempts("order.status", "committed");
+            double createdToPaid = transitions(OrderStatus.CREATED, OrderStatus.PAID);
+            double createdToCancelled = transitions(OrderStatus.CREATED, OrderStatus.CANCELLED);
+            double cancelledToPaid = transitions(OrderStatus.CANCELLED, OrderStatus.PAID);
+
+            saveInterleaver.beforeNextSave(() -> orderService.updateOrderStatus(id, OrderStatus.CANCELLED));
+            Order updated = orderService.updateOrderStatus(id, OrderStatus.PAID);
+
+            assertEquals(OrderStatus.PAID, updated.getStatus());
+            Order stored = orderRepository.findById(id).orElseThrow();
+            assertEquals(OrderStatus.PAID, stored.getStatus());
+            assertEquals(2L, stored.getVersion());
+
+            assertEquals(1, attempts("order.status", "conflict") - conflicts);
+            assertEquals(2, attempts("order.status", "committed") - commits);
+            // The lost attempt read CREATED, but never committed its transition
+            assertEquals(0, transitions(OrderStatus.CREATED, OrderStatus.PAID) - createdToPaid);
+            assertEquals(1, transitions(OrderStatus.CREATED, OrderStatus.CANCELLED) - createdToCancelled);
+            assertEquals(1, transitions(OrderStatus.CANCELLED, OrderStatus.PAID) - cancelledToPaid);
+        }
+    }
+
+    @Nested
+    @DisplayName("updateCoupon and deactivateCoupon")
+    class CouponUpdateTests {
+
+        @Test
+        @DisplayName("Should apply committed edits and deactivations to the valid coupon index")
+        void shouldUpdateValidCouponIndexOnCommit() {
+            Long id = couponService.createCoupon(coupon("INDEX001", "10.00")).getId();
+            assertEquals(new BigDecimal("10.00"), validCoupon(id).orElseThrow().value());
+
+            couponService.updateCoupon(id, coupon("INDEX001", "25.00"));
+            assertEquals(new BigDecimal("25.00"), validCoupon(id).orElseThrow().value());
+
+            couponService.deactivateCoupon(id);
+            assertTrue(validCoupon(id).isEmpty());
+            assertFalse(couponService.getCouponByCode("INDEX001").getActive());
+        }
+
+        @Test
+        @DisplayName("Should retry a deactivation that loses its race to an edit and drop the coupon from the index")
+        void shouldRetryConflictingDeactivation() {
+            Long id = couponService.createCoupon(coupon("RACE0001", "10.00")).getId();
+            assertTrue(validCoupon(id).isPresent());
+
+            double conflicts = attempts("coupon.deactivate", "conflict");
+            double commits = attempts("coupon.deactivate", "committed");
+
+            saveInterleaver.beforeNextSave(() -> couponService.updateCoupon(id, coupon("RACE0001", "30.00")));
+            Coupon deactivated = couponService.deactivateCoupon(id);
+
+            assertFalse(deactivated.getActive());
+            Coupon stored = couponRepository.findById(id).orElseThrow();
+            assertFalse(stored.getActive());
+            assertEquals(new BigDecimal("30.00"), stored.getValue());
+            assertEquals(2L, stored.getVersion());
+            assertTrue(validCoupon(id).isEmpty());
+
+            assertEquals(1, attempts("coupon.deactivate", "conflict") - conflicts);
+            assertEquals(1, attempts("coupon.deactivate", "committed") - commits);
+        }
+    }
+
+    private Coupon coupon(String code, String value) {
+        Coupon coupon = new Coupon();
+        coupon.setCode(code);
+        coupon.setType(CouponType.FIXED);
+        coupon.setValue(new BigDecimal(value));
+        coupon.setMinOrderAmount(BigDecimal.ZERO);
+        coupon.setMaxUses(10);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(LocalDateTime.now().plusDays(1));
+        return coupon;
+    }
+
+    private Optional<CouponView> validCoupon(Long id) {
+        return couponService.getValidCoupons().stream()
+                .filter(view -> view.id().equals(id))
+                .findFirst();
+    }
+
+    private double attempts(String operation, String outcome) {
+        return meterRegistry.counter("optimistic.lock.attempts", "operation", operation, "outcome", outcome).count();
+    }
+
+    private double transitions(OrderStatus from, OrderStatus to) {
+        return meterRegistry.counter("order.status.transitions", "from", from.name(), "to", to.name()).count();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.OrderExportFilter;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderStatus;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportService(orderRepository, entityManager, objectMapper);
+    }
+
+    private Order order(long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setName("Order " + id);
+        order.setOriginalAmount(new BigDecimal("100.00"));
+        order.setFinalAmount(new BigDecimal("90.00"));
+        order.setStatus(OrderStatus.PAID);
+        order.setCustomerId(1001L);
+        order.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+        return order;
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per line and detach each exported order")
+    void shouldWriteNewlineDelimitedJson() throws Exception {
+        Order first = order(1L);
+        Order second = order(2L);
+        OrderExportFilter filter = new OrderExportFilter(OrderStatus.PAID, 1001L, null, null);
+        when(orderRepository.streamForExport(OrderStatus.PAID, 1001L, null, null))
+                .thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = orderExportService.exportOrders(filter, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("Order 2", objectMapper.readTree(lines[1]).get("name").asText());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    @DisplayName("Should write nothing when no orders match")
+    void shouldWriteNothingWhenNoOrdersMatch() throws Exception {
+        when(orderRepository.streamForExport(null, null, null, null)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = orderExportService.exportOrders(new OrderExportFilter(null, null, null, null), out);
+
+        assertEquals(0, count);
+        assertEquals(0, out.size());
+    }
+}
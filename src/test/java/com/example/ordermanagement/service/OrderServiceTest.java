@@ -1,19 +1,25 @@
 package com.example.ordermanagement.service;
 
+import com.example.ordermanagement.dto.CursorPage;
+import com.example.ordermanagement.dto.OrderSummary;
 import com.example.ordermanagement.entity.Order;
 import com.example.ordermanagement.entity.OrderStatus;
 import com.example.ordermanagement.exception.ResourceNotFoundException;
 import com.example.ordermanagement.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -28,13 +34,17 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private OrderService orderService;
 
     private Order testOrder;
 
     @BeforeEach
     void setUp() {
+        orderService = new OrderService(orderRepository, new OrderMetrics(meterRegistry),
+                new OptimisticLockRetry(mock(PlatformTransactionManager.class), meterRegistry, 3, Duration.ZERO));
+
         testOrder = new Order();
         testOrder.setId(1L);
         testOrder.setName("Test Order");
@@ -44,6 +54,11 @@ class OrderServiceTest {
         testOrder.setCustomerId(1001L);
     }
 
+    private OrderSummary summary(Long id) {
+        return new OrderSummary(id, "Test Order", new BigDecimal("100.00"), new BigDecimal("90.00"),
+                OrderStatus.CREATED, 1001L);
+    }
+
     @Nested
     @DisplayName("Get Order By ID Tests")
     class GetOrderByIdTests {
@@ -163,6 +178,23 @@ class OrderServiceTest {
             assertEquals(OrderStatus.PAID, testOrder.getStatus());
         }
 
+        @Test
+        @DisplayName("Should count status transitions by source and target status")
+        void shouldCountStatusTransitions() {
+            when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+            when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+            orderService.createOrder(testOrder);
+            orderService.updateOrderStatus(1L, OrderStatus.PAID);
+
+            assertEquals(1, meterRegistry.get("order.status.transitions")
+                    .tags("from", "NONE", "to", "CREATED").counter().count());
+            assertEquals(1, meterRegistry.get("order.status.transitions")
+                    .tags("from", "CREATED", "to", "PAID").counter().count());
+            assertEquals(0, meterRegistry.get("order.status.transitions")
+                    .tags("from", "CREATED", "to", "CANCELLED").counter().count());
+        }
+
         @Test
         @DisplayName("Should update status from CREATED to CANCELLED")
         void shouldUpdateStatusFromCreatedToCancelled() {
@@ -183,6 +215,25 @@ class OrderServiceTest {
             assertThrows(ResourceNotFoundException.class,
                     () -> orderService.updateOrderStatus(999L, OrderStatus.PAID));
         }
+
+        @Test
+        @DisplayName("Should retry on fresh state after losing an optimistic locking race")
+        void shouldRetryAfterOptimisticLockingFailure() {
+            Order fresh = new Order();
+            fresh.setId(1L);
+            fresh.setStatus(OrderStatus.CREATED);
+            when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder), Optional.of(fresh));
+            when(orderRepository.save(any(Order.class)))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L))
+                    .thenReturn(fresh);
+
+            Order result = orderService.updateOrderStatus(1L, OrderStatus.PAID);
+
+            assertSame(fresh, result);
+            assertEquals(OrderStatus.PAID, fresh.getStatus());
+            assertEquals(1, meterRegistry.get("order.status.transitions")
+                    .tags("from", "CREATED", "to", "PAID").counter().count());
+        }
     }
 
     @Nested
@@ -215,9 +266,9 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return empty list when customer has no orders")
         void shouldReturnEmptyListWhenCustomerHasNoOrders() {
-            when(orderRepository.findByCustomerId(9999L)).thenReturn(Collections.emptyList());
+            when(orderRepository.findSummariesByCustomerId(9999L)).thenReturn(Collections.emptyList());
 
-            List<Order> result = orderService.getOrdersByCustomerId(9999L);
+            List<OrderSummary> result = orderService.getOrdersByCustomerId(9999L);
 
             assertTrue(result.isEmpty());
         }
@@ -225,12 +276,12 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return orders when customer has orders")
         void shouldReturnOrdersWhenCustomerHasOrders() {
-            when(orderRepository.findByCustomerId(1001L)).thenReturn(List.of(testOrder));
+            when(orderRepository.findSummariesByCustomerId(1001L)).thenReturn(List.of(summary(1L)));
 
-            List<Order> result = orderService.getOrdersByCustomerId(1001L);
+            List<OrderSummary> result = orderService.getOrdersByCustomerId(1001L);
 
             assertEquals(1, result.size());
-            assertEquals(1001L, result.get(0).getCustomerId());
+            assertEquals(1001L, result.get(0).customerId());
         }
     }
 
@@ -241,9 +292,9 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return empty list when no orders with given status")
         void shouldReturnEmptyListWhenNoOrdersWithStatus() {
-            when(orderRepository.findByStatus(OrderStatus.CANCELLED)).thenReturn(Collections.emptyList());
+            when(orderRepository.findSummariesByStatus(OrderStatus.CANCELLED)).thenReturn(Collections.emptyList());
 
-            List<Order> result = orderService.getOrdersByStatus(OrderStatus.CANCELLED);
+            List<OrderSummary> result = orderService.getOrdersByStatus(OrderStatus.CANCELLED);
 
             assertTrue(result.isEmpty());
         }
@@ -251,16 +302,41 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return all orders with given status")
         void shouldReturnAllOrdersWithStatus() {
-            Order order2 = new Order();
-            order2.setId(2L);
-            order2.setStatus(OrderStatus.CREATED);
-
-            when(orderRepository.findByStatus(OrderStatus.CREATED))
-                    .thenReturn(List.of(testOrder, order2));
+            when(orderRepository.findSummariesByStatus(OrderStatus.CREATED))
+                    .thenReturn(List.of(summary(1L), summary(2L)));
 
-            List<Order> result = orderService.getOrdersByStatus(OrderStatus.CREATED);
+            List<OrderSummary> result = orderService.getOrdersByStatus(OrderStatus.CREATED);
 
             assertEquals(2, result.size());
         }
     }
+
+    @Nested
+    @DisplayName("Cursor Pagination Tests")
+    class CursorPaginationTests {
+
+        @Test
+        @DisplayName("Should return next cursor when more rows exist than the page size")
+        void shouldReturnNextCursorWhenMoreRowsExist() {
+            when(orderRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                    .thenReturn(List.of(summary(1L), summary(2L), summary(3L)));
+
+            CursorPage<OrderSummary> page = orderService.getOrders(null, 2);
+
+            assertEquals(2, page.items().size());
+            assertEquals(2L, page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("Should return no cursor on the last page")
+        void shouldReturnNoCursorOnLastPage() {
+            when(orderRepository.findSummariesByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.CREATED, 5L, Limit.of(3)))
+                    .thenReturn(List.of(summary(6L)));
+
+            CursorPage<OrderSummary> page = orderService.getOrdersByStatus(OrderStatus.CREATED, 5L, 2);
+
+            assertEquals(1, page.items().size());
+            assertNull(page.nextCursor());
+        }
+    }
 }
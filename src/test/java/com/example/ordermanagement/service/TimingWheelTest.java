@@ -0,0 +1,78 @@
+package com.example.ordermanagement.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(1000, START);
+
+    @Test
+    @DisplayName("Should fire a task once its deadline has passed, never before")
+    void shouldFireAtDeadline() {
+        assertTrue(wheel.schedule(START + 2_500, "task"));
+
+        assertTrue(wheel.advance(START + 2_499).isEmpty());
+        assertEquals(List.of("task"), wheel.advance(START + 3_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should refuse deadlines that have already been reached")
+    void shouldRefusePastDeadlines() {
+        wheel.advance(START + 5_000);
+
+        assertFalse(wheel.schedule(START + 4_000, "late"));
+        assertFalse(wheel.schedule(START + 5_000, "now"));
+        assertTrue(wheel.schedule(START + 5_001, "next"));
+    }
+
+    @Test
+    @DisplayName("Should cascade far deadlines down to fire on the right tick")
+    void shouldCascadeFarDeadlines() {
+        long inAYear = START + 365L * 24 * 3600 * 1000;
+        assertTrue(wheel.schedule(inAYear, "year"));
+        assertTrue(wheel.schedule(START + 64_000, "minute"));
+
+        assertEquals(List.of("minute"), wheel.advance(START + 64_000));
+        assertTrue(wheel.advance(inAYear - 1_000).isEmpty());
+        assertEquals(List.of("year"), wheel.advance(inAYear));
+    }
+
+    @Test
+    @DisplayName("Should fire random deadlines in deadline order when advanced in steps")
+    void shouldFireRandomDeadlinesInOrder() {
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        TimingWheel<Long> longWheel = new TimingWheel<>(1000, START);
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = START + 1_000 + (long) (random.nextDouble() * 10_000_000_000L);
+            deadlines.add(deadline);
+            assertTrue(longWheel.schedule(deadline, deadline));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long now = START;
+        while (longWheel.size() > 0) {
+            long previous = now;
+            now += 1_000 + random.nextInt(50_000_000);
+            for (Long deadline : longWheel.advance(now)) {
+                assertTrue(deadline <= now, "fired early");
+                // Deadlines are rounded up to the next tick
+                assertTrue(deadline > previous - 1_000, "fired late");
+                fired.add(deadline);
+            }
+        }
+        deadlines.sort(null);
+        fired.sort(null);
+        assertEquals(deadlines, fired);
+    }
+}
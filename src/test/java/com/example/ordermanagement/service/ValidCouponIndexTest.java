@@ -0,0 +1,311 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.CouponView;
+import com.example.ordermanagement.entity.Coupon;
+import com.example.ordermanagement.entity.CouponType;
+import com.example.ordermanagement.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ValidCouponIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    private final MutableClock clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+
+    private ValidCouponIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ValidCouponIndex(couponRepository, Duration.ofSeconds(1), clock);
+    }
+
+    private static Coupon coupon(long id, LocalDateTime validFrom, LocalDateTime validUntil) {
+        Coupon coupon = new Coupon();
+        coupon.setId(id);
+        coupon.setCode("CODE" + id);
+        coupon.setType(CouponType.FIXED);
+        coupon.setValue(new BigDecimal("10.00"));
+        coupon.setMinOrderAmount(BigDecimal.ZERO);
+        coupon.setMaxUses(10);
+        coupon.setUsedCount(0);
+        coupon.setValidFrom(validFrom);
+        coupon.setValidUntil(validUntil);
+        coupon.setActive(true);
+        return coupon;
+    }
+
+    private void givenStored(Coupon... coupons) {
+        when(couponRepository.findAllUnexpiredCoupons(any()))
+                .thenReturn(List.of(coupons).stream().map(CouponView::of).toList());
+    }
+
+    private List<Long> validIds() {
+        return index.validCoupons().stream().map(CouponView::id).toList();
+    }
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should list open coupons ordered by validUntil and skip upcoming ones")
+        void shouldListOpenCouponsByValidUntil() {
+            givenStored(coupon(1L, NOW.minusDays(1), NOW.plusDays(5)),
+                    coupon(2L, NOW.minusDays(1), NOW.plusDays(1)),
+                    coupon(3L, NOW.plusDays(1), NOW.plusDays(2)));
+
+            assertEquals(List.of(2L, 1L), validIds());
+        }
+
+        @Test
+        @DisplayName("Should serve repeated reads from memory")
+        void shouldNotQueryOnEveryRead() {
+            givenStored(coupon(1L, NOW.minusDays(1), NOW.plusDays(5)));
+
+            List<CouponView> first = index.validCoupons();
+            List<CouponView> second = index.validCoupons();
+
+            assertSame(first, second);
+            verify(couponRepository, times(1)).findAllUnexpiredCoupons(any());
+        }
+
+        @Test
+        @DisplayName("Should replay updates that arrive while the index is reloading")
+        void shouldReplayUpdatesDuringRefresh() {
+            Coupon coupon = coupon(1L, NOW.minusDays(1), NOW.plusDays(5));
+            index.refresh();
+            when(couponRepository.findAllUnexpiredCoupons(any())).thenAnswer(invocation -> {
+                // Committed after the reload read the row
+                Coupon deactivated = coupon(1L, NOW.minusDays(1), NOW.plusDays(5));
+                deactivated.setActive(false);
+                index.update(deactivated);
+                return List.of(CouponView.of(coupon));
+            });
+
+            index.refresh();
+
+            assertTrue(validIds().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Validity Window Tests")
+    class ValidityWindowTests {
+
+        @Test
+        @DisplayName("Should add a coupon once its window opens")
+        void shouldOpenOnValidFrom() {
+            givenStored(coupon(1L, NOW.plusMinutes(10), NOW.plusDays(1)));
+            assertTrue(validIds().isEmpty());
+
+            clock.advance(Duration.ofMinutes(10).minusSeconds(1));
+            index.tick();
+            assertTrue(validIds().isEmpty());
+
+            clock.advance(Duration.ofSeconds(1));
+            index.tick();
+            assertEquals(List.of(1L), validIds());
+        }
+
+        @Test
+        @DisplayName("Should keep a coupon up to and including validUntil")
+        void shouldCloseAfterValidUntil() {
+            givenStored(coupon(1L, NOW.minusDays(1), NOW.plusHours(2)));
+            assertEquals(List.of(1L), validIds());
+
+            clock.advance(Duration.ofHours(2));
+            index.tick();
+            assertEquals(List.of(1L), validIds());
+
+            clock.advance(Duration.ofSeconds(1));
+            index.tick();
+            assertTrue(validIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should follow a window moved by an update")
+        void shouldFollowRescheduledWindow() {
+            Coupon coupon = coupon(1L, NOW.plusMinutes(5), NOW.plusDays(1));
+            givenStored(coupon);
+            index.refresh();
+
+            coupon.setValidFrom(NOW.plusHours(1));
+            index.update(coupon);
+            clock.advance(Duration.ofMinutes(30));
+            index.tick();
+
+            assertTrue(validIds().isEmpty());
+            clock.advance(Duration.ofMinutes(30));
+            index.tick();
+            assertEquals(List.of(1L), validIds());
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @BeforeEach
+        void load() {
+            givenStored(coupon(1L, NOW.minusDays(1), NOW.plusDays(5)),
+                    coupon(2L, NOW.minusDays(1), NOW.plusDays(3)));
+            index.refresh();
+        }
+
+        @Test
+        @DisplayName("Should add a created coupon")
+        void shouldAddCreatedCoupon() {
+            index.update(coupon(3L, NOW.minusHours(1), NOW.plusDays(4)));
+
+            assertEquals(List.of(2L, 3L, 1L), validIds());
+        }
+
+        @Test
+        @DisplayName("Should drop deactivated, used up and deleted coupons")
+        void shouldDropCouponsThatStopBeingValid() {
+            Coupon deactivated = coupon(1L, NOW.minusDays(1), NOW.plusDays(5));
+            deactivated.setActive(false);
+            index.update(deactivated);
+            assertEquals(List.of(2L), validIds());
+
+            Coupon usedUp = coupon(2L, NOW.minusDays(1), NOW.plusDays(3));
+            usedUp.setUsedCount(10);
+            index.update(usedUp);
+            assertTrue(validIds().isEmpty());
+
+            index.update(coupon(3L, NOW.minusDays(1), NOW.plusDays(3)));
+            index.remove(3L);
+            assertTrue(validIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should show the latest used count")
+        void shouldRefreshUsedCount() {
+            Coupon redeemed = coupon(1L, NOW.minusDays(1), NOW.plusDays(5));
+            redeemed.setUsedCount(4);
+            index.update(redeemed);
+
+            assertEquals(4, index.validCoupons().get(1).usedCount());
+        }
+
+        @Test
+        @DisplayName("Should re-index a redemption only when it uses the coupon up")
+        void shouldReindexOnlyUsedUpRedemptions() {
+            List<CouponView> before = index.validCoupons();
+
+            Coupon redeemed = coupon(1L, NOW.minusDays(1), NOW.plusDays(5));
+            redeemed.setUsedCount(4);
+            index.redeemed(redeemed);
+            assertSame(before, index.validCoupons());
+
+            redeemed.setUsedCount(10);
+            index.redeemed(redeemed);
+            assertEquals(List.of(2L), validIds());
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry Queue Tests")
+    class ExpiryQueueTests {
+
+        private List<Long> drainedIds() {
+            return index.drainExpired().stream().map(CouponView::id).toList();
+        }
+
+        @Test
+        @DisplayName("Should queue an active coupon on the tick its window closes")
+        void shouldQueueOnValidUntil() {
+            givenStored(coupon(1L, NOW.minusDays(1), NOW.plusMinutes(1)));
+            index.refresh();
+            assertTrue(drainedIds().isEmpty());
+
+            clock.advance(Duration.ofMinutes(1).plusSeconds(1));
+            index.tick();
+
+            assertEquals(List.of(1L), drainedIds());
+            assertTrue(drainedIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should queue a coupon whose last use has been redeemed")
+        void shouldQueueUsedUpCoupon() {
+            givenStored(coupon(1L, NOW.minusDays(1), NOW.plusDays(1)));
+            index.refresh();
+
+            Coupon usedUp = coupon(1L, NOW.minusDays(1), NOW.plusDays(1));
+            usedUp.setUsedCount(10);
+            index.update(usedUp);
+
+            assertEquals(List.of(1L), drainedIds());
+        }
+
+        @Test
+        @DisplayName("Should not queue deactivated or extended coupons")
+        void shouldNotQueueInactiveOrExtendedCoupons() {
+            Coupon coupon = coupon(1L, NOW.minusDays(1), NOW.plusMinutes(1));
+            givenStored(coupon);
+            index.refresh();
+
+            coupon.setValidUntil(NOW.plusDays(1));
+            index.update(coupon);
+            Coupon deactivated = coupon(2L, NOW.minusDays(2), NOW.minusDays(1));
+            deactivated.setActive(false);
+            index.update(deactivated);
+            clock.advance(Duration.ofMinutes(2));
+            index.tick();
+
+            assertTrue(drainedIds().isEmpty());
+        }
+    }
+
+    static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}